@@ -0,0 +1,28 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.EcommerceApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against its embedded H2 database, without the web server and SQL logging.
+ * Benchmarks using it warm up longer, since Hibernate and Spring paths take a while to be compiled.
+ */
+final class BenchmarkApplication {
+
+   private BenchmarkApplication() {
+   }
+
+   static ConfigurableApplicationContext start() {
+      SpringApplication application = new SpringApplication(EcommerceApplication.class);
+      application.setWebApplicationType(WebApplicationType.NONE);
+      return application.run(
+              "--spring.main.banner-mode=off",
+              "--spring.jpa.show-sql=false",
+              "--logging.level.root=WARN",
+              "--logging.level.org.springframework=WARN",
+              "--logging.level.com.ecommerce=WARN",
+              "--logging.level.org.hibernate.SQL=WARN");
+   }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.CartResponse;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart reads and mutations through CartService with the default in-memory cart store
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+   private static final int CART_SIZE = 5;
+   private static final String SESSION_ID = "benchmark-cart";
+
+   private ConfigurableApplicationContext context;
+   private CartService cartService;
+   private Long extraProductId;
+   private Long firstItemId;
+   private int quantity;
+
+   @Setup
+   public void setUp() {
+      context = BenchmarkApplication.start();
+      cartService = context.getBean(CartService.class);
+      ProductService productService = context.getBean(ProductService.class);
+
+      CartResponse cart = null;
+      for (int i = 0; i < CART_SIZE; i++) {
+         Long productId = productService.createProduct(Fixtures.productRequest(i)).getId();
+         cart = cartService.addToCart(SESSION_ID, productId, 1);
+      }
+      firstItemId = cart.getItems().get(0).getId();
+      extraProductId = productService.createProduct(Fixtures.productRequest(CART_SIZE)).getId();
+   }
+
+   @TearDown
+   public void tearDown() {
+      context.close();
+   }
+
+   @Benchmark
+   public CartResponse getCart() {
+      return cartService.getCart(SESSION_ID);
+   }
+
+   @Benchmark
+   public CartResponse updateQuantity() {
+      quantity = quantity % 5 + 1;
+      return cartService.updateCartItem(SESSION_ID, firstItemId, quantity);
+   }
+
+   @Benchmark
+   public CartResponse addAndRemoveLine() {
+      CartResponse cart = cartService.addToCart(SESSION_ID, extraProductId, 1);
+      Long itemId = cart.getItems().get(cart.getItems().size() - 1).getId();
+      return cartService.removeFromCart(SESSION_ID, itemId);
+   }
+}
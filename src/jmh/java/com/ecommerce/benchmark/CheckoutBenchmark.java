@@ -0,0 +1,65 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling a cart and placing the order through OrderService against the embedded H2 database
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+   @Param({"1", "5"})
+   private int lines;
+
+   private ConfigurableApplicationContext context;
+   private CartService cartService;
+   private OrderService orderService;
+   private final List<Long> productIds = new ArrayList<>();
+   private long sessions;
+
+   @Setup
+   public void setUp() {
+      context = BenchmarkApplication.start();
+      cartService = context.getBean(CartService.class);
+      orderService = context.getBean(OrderService.class);
+      ProductService productService = context.getBean(ProductService.class);
+      for (int i = 0; i < lines; i++) {
+         productIds.add(productService.createProduct(Fixtures.productRequest(i)).getId());
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      context.close();
+   }
+
+   @Benchmark
+   public OrderResponse checkout() {
+      String sessionId = "benchmark-checkout-" + sessions++;
+      for (Long productId : productIds) {
+         cartService.addToCart(sessionId, productId, 1);
+      }
+      return orderService.createOrder(CreateOrderRequest.builder()
+              .sessionId(sessionId)
+              .customerName("Benchmark Customer")
+              .customerEmail("customer@example.com")
+              .phoneNumber("+1234567890")
+              .shippingAddress("123 Benchmark Street, Test City")
+              .build(), null);
+   }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.OrderItemView;
+import com.ecommerce.dto.OrderView;
+import com.ecommerce.dto.ProductRequest;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic test data shared by the benchmarks
+ */
+final class Fixtures {
+
+   private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+   private Fixtures() {
+   }
+
+   static Product product(long id) {
+      return Product.builder()
+              .id(id)
+              .version(0L)
+              .name("Product " + id)
+              .description("Benchmark product number " + id + " with a description of typical length")
+              .price(new BigDecimal("19.99").add(BigDecimal.valueOf(id)))
+              .stockQuantity(1000)
+              .category("Electronics")
+              .imageUrl("https://example.com/images/" + id + ".jpg")
+              .active(true)
+              .createdAt(NOW)
+              .updatedAt(NOW)
+              .build();
+   }
+
+   static ProductRequest productRequest(int index) {
+      return ProductRequest.builder()
+              .name("Benchmark product " + index)
+              .description("Benchmark product number " + index)
+              .price(new BigDecimal("19.99").add(BigDecimal.valueOf(index)))
+              .stockQuantity(Integer.MAX_VALUE / 2)
+              .category("Benchmark")
+              .active(true)
+              .build();
+   }
+
+   static List<CartItem> cartItems(int count) {
+      List<CartItem> items = new ArrayList<>(count);
+      for (int i = 1; i <= count; i++) {
+         CartItem item = CartItem.builder()
+                 .id((long) i)
+                 .sessionId("benchmark-session")
+                 .product(product(i))
+                 .quantity(1 + i % 3)
+                 .createdAt(NOW)
+                 .updatedAt(NOW)
+                 .build();
+         item.calculateSubtotal();
+         items.add(item);
+      }
+      return items;
+   }
+
+   static Order order(int itemCount) {
+      Order order = Order.builder()
+              .id(1L)
+              .orderNumber("ORD-BENCH001")
+              .customerName("Benchmark Customer")
+              .customerEmail("customer@example.com")
+              .shippingAddress("123 Benchmark Street, Test City")
+              .status(Order.OrderStatus.PENDING)
+              .paymentStatus(Order.PaymentStatus.PENDING)
+              .orderDate(NOW)
+              .createdAt(NOW)
+              .updatedAt(NOW)
+              .build();
+      for (CartItem cartItem : cartItems(itemCount)) {
+         order.addOrderItem(OrderItem.builder()
+                 .id(cartItem.getId())
+                 .product(cartItem.getProduct())
+                 .quantity(cartItem.getQuantity())
+                 .priceAtPurchase(cartItem.getProduct().getPrice())
+                 .subtotal(cartItem.getSubtotal())
+                 .build());
+      }
+      order.calculateTotalAmount();
+      return order;
+   }
+
+   static OrderView orderView(Order order) {
+      return new OrderView(order.getId(), order.getOrderNumber(), order.getCustomerName(), order.getCustomerEmail(),
+              order.getShippingAddress(), order.getTotalAmount(), order.getStatus(), order.getPaymentStatus(),
+              order.getOrderDate(), order.getCreatedAt(), order.getUpdatedAt());
+   }
+
+   static List<OrderItemView> orderItemViews(Order order) {
+      List<OrderItemView> views = new ArrayList<>(order.getOrderItems().size());
+      for (OrderItem item : order.getOrderItems()) {
+         Product product = item.getProduct();
+         views.add(new OrderItemView(order.getId(), item.getId(), item.getQuantity(), item.getPriceAtPurchase(),
+                 item.getSubtotal(), product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                 product.getStockQuantity(), product.getCategory(), product.getImageUrl(), product.getActive()));
+      }
+      return views;
+   }
+}
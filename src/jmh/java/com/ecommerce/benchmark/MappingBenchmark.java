@@ -0,0 +1,57 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.CartResponse;
+import com.ecommerce.dto.OrderItemView;
+import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.dto.OrderView;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Order;
+import com.ecommerce.util.DtoMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity and projection to DTO mapping of orders and carts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+   @Param({"1", "10", "50"})
+   private int items;
+
+   private final DtoMapper dtoMapper = new DtoMapper();
+   private Order order;
+   private OrderView orderView;
+   private List<OrderItemView> orderItemViews;
+   private List<CartItem> cartItems;
+
+   @Setup
+   public void setUp() {
+      order = Fixtures.order(items);
+      orderView = Fixtures.orderView(order);
+      orderItemViews = Fixtures.orderItemViews(order);
+      cartItems = Fixtures.cartItems(items);
+   }
+
+   @Benchmark
+   public OrderResponse orderFromEntity() {
+      return dtoMapper.toOrderResponse(order);
+   }
+
+   @Benchmark
+   public OrderResponse orderFromProjection() {
+      return dtoMapper.toOrderResponse(orderView, orderItemViews);
+   }
+
+   @Benchmark
+   public CartResponse cart() {
+      return dtoMapper.toCartResponse(cartItems, "benchmark-session");
+   }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal line subtotal and order total computation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TotalsBenchmark {
+
+   @State(Scope.Benchmark)
+   public static class CartItemState {
+
+      private CartItem cartItem;
+
+      @Setup
+      public void setUp() {
+         cartItem = Fixtures.cartItems(1).get(0);
+      }
+   }
+
+   @State(Scope.Benchmark)
+   public static class OrderState {
+
+      @Param({"1", "10", "50"})
+      private int items;
+
+      private Order order;
+
+      @Setup
+      public void setUp() {
+         order = Fixtures.order(items);
+      }
+   }
+
+   @Benchmark
+   public BigDecimal cartItemSubtotal(CartItemState state) {
+      state.cartItem.calculateSubtotal();
+      return state.cartItem.getSubtotal();
+   }
+
+   @Benchmark
+   public BigDecimal orderTotal(OrderState state) {
+      state.order.calculateTotalAmount();
+      return state.order.getTotalAmount();
+   }
+}
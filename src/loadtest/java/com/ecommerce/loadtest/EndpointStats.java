@@ -0,0 +1,43 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histogram (microseconds) and error count of one endpoint.
+ * {@link #interval()} returns what was recorded since the previous call, so the warm-up can be dropped.
+ */
+final class EndpointStats {
+
+   private final String name;
+   private final Recorder latencies = new Recorder(3);
+   private final AtomicLong errors = new AtomicLong();
+
+   EndpointStats(String name) {
+      this.name = name;
+   }
+
+   String getName() {
+      return name;
+   }
+
+   void record(long elapsedNanos, boolean success) {
+      if (success) {
+         latencies.recordValue(Math.max(1, elapsedNanos / 1000));
+      } else {
+         errors.incrementAndGet();
+      }
+   }
+
+   Interval interval() {
+      return new Interval(latencies.getIntervalHistogram(), errors.getAndSet(0));
+   }
+
+   /**
+    * Successful request latencies and failed request count of one recording interval
+    */
+   record Interval(Histogram latencies, long errors) {
+   }
+}
@@ -0,0 +1,227 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.dto.ProductRequest;
+import com.ecommerce.loadtest.ShopperSession.Endpoint;
+import com.ecommerce.loadtest.ShopperSession.Step;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load generator for the product, cart and order endpoints.
+ *
+ * Shopper sessions arrive as a Poisson process at the configured rate, independently of how fast the
+ * server answers, and each session browses products picked by Zipfian popularity, may add some to a
+ * new cart, and may check out and pay before it leaves. Latencies of successful requests are recorded
+ * per endpoint in HDR histograms; the warm-up is discarded before throughput and percentiles are
+ * reported and the histograms are written to the output directory.
+ */
+public final class LoadTest {
+
+   private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+   private final LoadTestConfig config;
+   private final URI base;
+   private final ObjectMapper objectMapper = new ObjectMapper();
+   private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+   private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+      Thread thread = new Thread(runnable, "loadtest-scheduler");
+      thread.setDaemon(true);
+      return thread;
+   });
+   private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+   private final AtomicInteger activeSessions = new AtomicInteger();
+   private final AtomicLong sessionsStarted = new AtomicLong();
+   private final AtomicLong sessionsDropped = new AtomicLong();
+   private volatile long measureStart;
+   private volatile long stopAt;
+
+   LoadTest(LoadTestConfig config, URI base) {
+      this.config = config;
+      this.base = base;
+      for (Endpoint endpoint : Endpoint.values()) {
+         stats.put(endpoint, new EndpointStats(endpoint.label));
+      }
+   }
+
+   public static void main(String[] args) throws Exception {
+      LoadTestConfig config = LoadTestConfig.parse(args);
+      ConfigurableApplicationContext application = config.target == null ? LocalApplication.start() : null;
+      try {
+         URI base = application != null ? LocalApplication.baseUri(application) : config.target;
+         new LoadTest(config, base).run();
+      } finally {
+         if (application != null) {
+            application.close();
+         }
+      }
+   }
+
+   void run() throws IOException, InterruptedException {
+      System.out.println("Load test: " + config);
+      List<Long> productIds = seedProducts();
+      ZipfianGenerator popularity = new ZipfianGenerator(productIds.size(), config.zipfExponent);
+      String runId = Long.toString(System.currentTimeMillis(), 36);
+      Random arrivals = new Random(config.seed);
+
+      long start = System.nanoTime();
+      long warmupEnd = start + config.warmup.toNanos();
+      stopAt = warmupEnd + config.duration.toNanos();
+      scheduler.schedule(this::startMeasuring, config.warmup.toNanos(), TimeUnit.NANOSECONDS);
+
+      long next = start;
+      for (long index = 0; next < stopAt; index++) {
+         LockSupport.parkNanos(next - System.nanoTime());
+         if (activeSessions.get() >= config.maxSessions) {
+            sessionsDropped.incrementAndGet();
+         } else {
+            startSession(new ShopperSession(runId, index, config, productIds, popularity));
+         }
+         next += (long) (-Math.log(1.0 - arrivals.nextDouble()) / config.arrivalRate * 1e9);
+      }
+
+      long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+      while (activeSessions.get() > 0 && System.nanoTime() < drainDeadline) {
+         Thread.sleep(50);
+      }
+      long measured = Math.max(1, System.nanoTime() - measureStart);
+      report(measured);
+      scheduler.shutdownNow();
+   }
+
+   /**
+    * Create the catalog the sessions browse; rank order is shuffled so popularity does not follow id order
+    */
+   private List<Long> seedProducts() throws IOException, InterruptedException {
+      List<Long> ids = new ArrayList<>(config.products);
+      for (int i = 0; i < config.products; i++) {
+         ProductRequest product = ProductRequest.builder()
+                 .name("Load test product " + i)
+                 .description("Product number " + i + " of the load test catalog")
+                 .price(new BigDecimal("9.99").add(BigDecimal.valueOf(i % 500)))
+                 .stockQuantity(999_999)
+                 .category("Load Test " + (i % 10))
+                 .active(true)
+                 .build();
+         HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("api/products"))
+                 .header("Content-Type", "application/json")
+                 .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(product)))
+                 .build(), HttpResponse.BodyHandlers.ofString());
+         if (response.statusCode() != 201) {
+            throw new IllegalStateException("Cannot create load test product: HTTP " + response.statusCode()
+                    + " " + response.body());
+         }
+         ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+      }
+      Collections.shuffle(ids, new Random(config.seed));
+      return ids;
+   }
+
+   private void startMeasuring() {
+      stats.values().forEach(EndpointStats::interval);
+      measureStart = System.nanoTime();
+   }
+
+   private void startSession(ShopperSession session) {
+      activeSessions.incrementAndGet();
+      sessionsStarted.incrementAndGet();
+      step(session);
+   }
+
+   private void step(ShopperSession session) {
+      Step step = session.next();
+      if (step == null || System.nanoTime() >= stopAt) {
+         activeSessions.decrementAndGet();
+         return;
+      }
+      EndpointStats endpoint = stats.get(step.endpoint());
+      long sent = System.nanoTime();
+      client.sendAsync(session.request(step, base, objectMapper), HttpResponse.BodyHandlers.ofString())
+              .whenComplete((response, error) -> {
+                 long elapsed = System.nanoTime() - sent;
+                 boolean success = error == null && response.statusCode() < 400;
+                 if (success) {
+                    try {
+                       session.onResponse(step, response, objectMapper);
+                    } catch (IOException | RuntimeException e) {
+                       success = false;
+                    }
+                 }
+                 endpoint.record(elapsed, success);
+                 if (!success) {
+                    // Later steps depend on this one, so a failed request ends the visit
+                    activeSessions.decrementAndGet();
+                    return;
+                 }
+                 scheduler.schedule(() -> step(session), session.thinkTimeMillis(config.meanThinkTime),
+                         TimeUnit.MILLISECONDS);
+              });
+   }
+
+   private void report(long measuredNanos) throws IOException {
+      double seconds = measuredNanos / 1e9;
+      Files.createDirectories(config.outputDir);
+      PrintStream out = System.out;
+      out.printf(Locale.ROOT, "%nSessions started %d, dropped %d (max-sessions), still active %d%n",
+              sessionsStarted.get(), sessionsDropped.get(), activeSessions.get());
+      out.printf(Locale.ROOT, "Measured %.1f s after %d s warm-up; latencies in ms%n%n", seconds, config.warmup.toSeconds());
+      out.printf(Locale.ROOT, "%-34s %9s %8s %7s %8s %8s %8s %8s %8s%n",
+              "endpoint", "requests", "req/s", "errors", "p50", "p90", "p99", "p99.9", "max");
+
+      Histogram total = new Histogram(3);
+      long totalErrors = 0;
+      for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+         EndpointStats.Interval interval = entry.getValue().interval();
+         total.add(interval.latencies());
+         totalErrors += interval.errors();
+         printRow(out, entry.getValue().getName(), interval.latencies(), interval.errors(), seconds);
+         writeHistogram(entry.getKey().name().toLowerCase(Locale.ROOT), interval.latencies());
+      }
+      printRow(out, "all", total, totalErrors, seconds);
+      writeHistogram("all", total);
+      out.println("\nHistograms written to " + config.outputDir.toAbsolutePath());
+   }
+
+   private static void printRow(PrintStream out, String name, Histogram latencies, long errors, double seconds) {
+      long count = latencies.getTotalCount();
+      out.printf(Locale.ROOT, "%-34s %9d %8.1f %7d %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+              name, count, count / seconds, errors,
+              millis(latencies, 50), millis(latencies, 90), millis(latencies, 99), millis(latencies, 99.9),
+              latencies.getMaxValue() / 1000.0);
+   }
+
+   private static double millis(Histogram latencies, double percentile) {
+      return latencies.getValueAtPercentile(percentile) / 1000.0;
+   }
+
+   /**
+    * Percentile distribution in the HdrHistogram .hgrm text format, in milliseconds
+    */
+   private void writeHistogram(String name, Histogram latencies) throws IOException {
+      try (PrintStream file = new PrintStream(Files.newOutputStream(config.outputDir.resolve(name + ".hgrm")))) {
+         latencies.outputPercentileDistribution(file, 1000.0);
+      }
+   }
+}
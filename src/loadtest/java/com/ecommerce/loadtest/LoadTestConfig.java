@@ -0,0 +1,79 @@
+package com.ecommerce.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test options, given as --name=value arguments.
+ * Every option has a default, so a run without arguments is the same run every time.
+ */
+final class LoadTestConfig {
+
+   /**
+    * Base URL of an application that is already running; empty to start one in-process on H2
+    */
+   final URI target;
+   final Duration warmup;
+   final Duration duration;
+   final double arrivalRate;
+   final int maxSessions;
+   final int products;
+   final double zipfExponent;
+   final double meanViews;
+   final double listShare;
+   final double addProbability;
+   final double checkoutProbability;
+   final double payProbability;
+   final Duration meanThinkTime;
+   final long seed;
+   final Path outputDir;
+
+   private LoadTestConfig(Map<String, String> options) {
+      String target = options.getOrDefault("target", "");
+      this.target = target.isBlank() ? null : URI.create(target.endsWith("/") ? target : target + "/");
+      this.warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "20")));
+      this.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+      this.arrivalRate = Double.parseDouble(options.getOrDefault("arrival-rate", "10"));
+      this.maxSessions = Integer.parseInt(options.getOrDefault("max-sessions", "2000"));
+      this.products = Integer.parseInt(options.getOrDefault("products", "500"));
+      this.zipfExponent = Double.parseDouble(options.getOrDefault("zipf-exponent", "1.0"));
+      this.meanViews = Double.parseDouble(options.getOrDefault("mean-views", "4"));
+      this.listShare = Double.parseDouble(options.getOrDefault("list-share", "0.2"));
+      this.addProbability = Double.parseDouble(options.getOrDefault("add-probability", "0.3"));
+      this.checkoutProbability = Double.parseDouble(options.getOrDefault("checkout-probability", "0.5"));
+      this.payProbability = Double.parseDouble(options.getOrDefault("pay-probability", "0.9"));
+      this.meanThinkTime = Duration.ofMillis(Long.parseLong(options.getOrDefault("think-time-ms", "500")));
+      this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+      this.outputDir = Path.of(options.getOrDefault("output", "target/loadtest"));
+   }
+
+   static LoadTestConfig parse(String... args) {
+      Map<String, String> options = new HashMap<>();
+      for (String arg : args) {
+         if (arg.isBlank()) {
+            continue;
+         }
+         int separator = arg.indexOf('=');
+         if (!arg.startsWith("--") || separator < 0) {
+            throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+         }
+         options.put(arg.substring(2, separator), arg.substring(separator + 1));
+      }
+      return new LoadTestConfig(options);
+   }
+
+   @Override
+   public String toString() {
+      return "target=" + (target != null ? target : "in-process H2")
+              + ", warmup=" + warmup.toSeconds() + "s, duration=" + duration.toSeconds() + "s"
+              + ", arrival-rate=" + arrivalRate + " sessions/s, max-sessions=" + maxSessions
+              + ", products=" + products + ", zipf-exponent=" + zipfExponent
+              + ", mean-views=" + meanViews + ", list-share=" + listShare
+              + ", add-probability=" + addProbability + ", checkout-probability=" + checkoutProbability
+              + ", pay-probability=" + payProbability + ", think-time-ms=" + meanThinkTime.toMillis()
+              + ", seed=" + seed;
+   }
+}
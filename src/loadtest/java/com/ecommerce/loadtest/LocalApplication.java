@@ -0,0 +1,33 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.EcommerceApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+
+/**
+ * Starts the application in-process on its embedded H2 database and a free port, without SQL logging
+ */
+final class LocalApplication {
+
+   private LocalApplication() {
+   }
+
+   static ConfigurableApplicationContext start() {
+      return SpringApplication.run(EcommerceApplication.class,
+              "--server.port=0",
+              "--spring.main.banner-mode=off",
+              "--spring.jpa.show-sql=false",
+              "--logging.level.root=WARN",
+              "--logging.level.org.springframework=WARN",
+              "--logging.level.com.ecommerce=WARN",
+              "--logging.level.org.hibernate.SQL=WARN");
+   }
+
+   static URI baseUri(ConfigurableApplicationContext application) {
+      String port = application.getEnvironment().getProperty("local.server.port");
+      String contextPath = application.getEnvironment().getProperty("server.servlet.context-path", "");
+      return URI.create("http://localhost:" + port + contextPath.replaceAll("/+$", "") + "/");
+   }
+}
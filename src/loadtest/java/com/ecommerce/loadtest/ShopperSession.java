@@ -0,0 +1,150 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.dto.AddToCartRequest;
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.PaymentRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * One shopper visit: browses products, may fill a cart, and may check out and pay.
+ * The whole visit is planned from the session's own seeded random source when the session starts,
+ * so a run with the same seed replays the same traffic however the server's timing turns out.
+ */
+final class ShopperSession {
+
+   /**
+    * Endpoints driven by the load test, named as reported
+    */
+   enum Endpoint {
+      VIEW_PRODUCT("GET /api/products/{id}"),
+      LIST_PRODUCTS("GET /api/products"),
+      ADD_TO_CART("POST /api/cart/{sessionId}/items"),
+      VIEW_CART("GET /api/cart/{sessionId}"),
+      CHECKOUT("POST /api/orders"),
+      PAY("POST /api/orders/{id}/payment");
+
+      final String label;
+
+      Endpoint(String label) {
+         this.label = label;
+      }
+   }
+
+   /**
+    * Planned request; the argument is the page for listings and the quantity for cart additions
+    */
+   record Step(Endpoint endpoint, long productId, int argument) {
+   }
+
+   private final String sessionId;
+   private final long index;
+   private final Random random;
+   private final Deque<Step> steps = new ArrayDeque<>();
+   private Long orderId;
+
+   ShopperSession(String runId, long index, LoadTestConfig config, List<Long> productIds, ZipfianGenerator popularity) {
+      this.sessionId = "loadtest-" + runId + "-" + index;
+      this.index = index;
+      this.random = new Random(config.seed * 1_000_003L + index);
+      plan(config, productIds, popularity);
+   }
+
+   private void plan(LoadTestConfig config, List<Long> productIds, ZipfianGenerator popularity) {
+      double continueBrowsing = 1.0 - 1.0 / Math.max(1.0, config.meanViews);
+      boolean added = false;
+      do {
+         if (random.nextDouble() < config.listShare) {
+            steps.add(new Step(Endpoint.LIST_PRODUCTS, 0, random.nextInt(5)));
+            continue;
+         }
+         long productId = productIds.get(popularity.next(random));
+         steps.add(new Step(Endpoint.VIEW_PRODUCT, productId, 0));
+         if (random.nextDouble() < config.addProbability) {
+            steps.add(new Step(Endpoint.ADD_TO_CART, productId, 1 + random.nextInt(2)));
+            added = true;
+         }
+      } while (random.nextDouble() < continueBrowsing);
+
+      if (!added) {
+         return;
+      }
+      steps.add(new Step(Endpoint.VIEW_CART, 0, 0));
+      if (random.nextDouble() < config.checkoutProbability) {
+         steps.add(new Step(Endpoint.CHECKOUT, 0, 0));
+         if (random.nextDouble() < config.payProbability) {
+            steps.add(new Step(Endpoint.PAY, 0, 0));
+         }
+      }
+   }
+
+   /**
+    * Next planned request, or null when the visit is over
+    */
+   Step next() {
+      return steps.poll();
+   }
+
+   /**
+    * Exponentially distributed pause before the next request
+    */
+   long thinkTimeMillis(Duration mean) {
+      return Math.round(-Math.log(1.0 - random.nextDouble()) * mean.toMillis());
+   }
+
+   HttpRequest request(Step step, URI base, ObjectMapper objectMapper) {
+      return switch (step.endpoint()) {
+         case VIEW_PRODUCT -> get(base.resolve("api/products/" + step.productId()));
+         case LIST_PRODUCTS -> get(base.resolve("api/products?page=" + step.argument() + "&size=20"));
+         case VIEW_CART -> get(base.resolve("api/cart/" + sessionId));
+         case ADD_TO_CART -> post(base.resolve("api/cart/" + sessionId + "/items"), objectMapper,
+                 AddToCartRequest.builder().productId(step.productId()).quantity(step.argument()).build());
+         case CHECKOUT -> post(base.resolve("api/orders"), objectMapper, CreateOrderRequest.builder()
+                 .sessionId(sessionId)
+                 .customerName("Load Test Shopper")
+                 .customerEmail("shopper" + index + "@example.com")
+                 .phoneNumber("+1234567890")
+                 .shippingAddress("123 Load Test Street, Test City")
+                 .build());
+         case PAY -> post(base.resolve("api/orders/" + orderId + "/payment"), objectMapper, PaymentRequest.builder()
+                 .paymentSuccessful(true)
+                 .transactionId("txn-" + sessionId)
+                 .paymentMethod("CREDIT_CARD")
+                 .paymentGateway("loadtest")
+                 .build());
+      };
+   }
+
+   /**
+    * Take what later steps need from a successful response
+    */
+   void onResponse(Step step, HttpResponse<String> response, ObjectMapper objectMapper) throws JsonProcessingException {
+      if (step.endpoint() == Endpoint.CHECKOUT) {
+         orderId = objectMapper.readTree(response.body()).get("id").asLong();
+      }
+   }
+
+   private static HttpRequest get(URI uri) {
+      return HttpRequest.newBuilder(uri).GET().build();
+   }
+
+   private static HttpRequest post(URI uri, ObjectMapper objectMapper, Object body) {
+      try {
+         return HttpRequest.newBuilder(uri)
+                 .header("Content-Type", "application/json")
+                 .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                 .build();
+      } catch (JsonProcessingException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent,
+ * so a few products get most of the traffic and the long tail is rarely touched
+ */
+final class ZipfianGenerator {
+
+   private final double[] cumulative;
+
+   ZipfianGenerator(int n, double exponent) {
+      if (n < 1) {
+         throw new IllegalArgumentException("Need at least one item");
+      }
+      cumulative = new double[n];
+      double sum = 0;
+      for (int rank = 0; rank < n; rank++) {
+         sum += 1.0 / Math.pow(rank + 1, exponent);
+         cumulative[rank] = sum;
+      }
+      for (int rank = 0; rank < n; rank++) {
+         cumulative[rank] /= sum;
+      }
+   }
+
+   int next(Random random) {
+      int index = Arrays.binarySearch(cumulative, random.nextDouble());
+      int rank = index >= 0 ? index : -index - 1;
+      return Math.min(rank, cumulative.length - 1);
+   }
+}
@@ -5,6 +5,7 @@ import com.ecommerce.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,9 +13,10 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 
 /**
- * Data loader to populate initial sample data on application startup
+ * Data loader to populate initial sample data on application startup (not in the prod profile)
  */
 @Component
+@Profile("!prod")
 @RequiredArgsConstructor
 @Slf4j
 public class DataLoader implements CommandLineRunner {
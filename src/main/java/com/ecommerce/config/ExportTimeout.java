@@ -0,0 +1,34 @@
+package com.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.Duration;
+
+/**
+ * Async timeout of the streamed export endpoints (export.timeout). A large export can stream for much
+ * longer than any other async request should take, so it gets its own timeout instead of raising
+ * spring.mvc.async.request-timeout for the whole application.
+ */
+@Component
+public class ExportTimeout {
+
+   private final long timeoutMillis;
+
+   public ExportTimeout(@Value("${export.timeout:1h}") Duration timeout) {
+      this.timeoutMillis = timeout.toMillis();
+   }
+
+   /**
+    * Apply the export timeout to a request whose handler returns a StreamingResponseBody
+    */
+   public void applyTo(WebRequest request) {
+      AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+      if (asyncWebRequest != null) {
+         asyncWebRequest.setTimeout(timeoutMillis);
+      }
+   }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.ecommerce.service.IdempotencyService;
+import com.ecommerce.service.ProductCatalogCache;
+import com.ecommerce.service.ProductService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Micrometer setup: times every public method of the @Timed services as ecommerce.service
+ * (tagged with class and method), and publishes the counters the caches and the outbox already keep.
+ * Metrics are scraped from /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig {
+
+   @Bean
+   public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+      return new TimedAspect(meterRegistry);
+   }
+
+   @Bean
+   public MeterBinder catalogCacheMetrics(ProductCatalogCache cache, ProductService productService) {
+      return registry -> {
+         FunctionCounter.builder("ecommerce.catalog.cache.requests", cache, c -> c.stats().getHits())
+                 .tag("result", "hit")
+                 .register(registry);
+         FunctionCounter.builder("ecommerce.catalog.cache.requests", cache, c -> c.stats().getMisses())
+                 .tag("result", "miss")
+                 .register(registry);
+         FunctionCounter.builder("ecommerce.catalog.cache.evictions", cache, c -> c.stats().getEvictions())
+                 .register(registry);
+         Gauge.builder("ecommerce.catalog.cache.size", cache, c -> c.stats().getSize())
+                 .register(registry);
+         FunctionCounter.builder("ecommerce.catalog.loads", productService, s -> s.getProductLoadStats().getExecuted())
+                 .tag("result", "executed")
+                 .description("Product cache misses that loaded from the database, or joined a load in flight")
+                 .register(registry);
+         FunctionCounter.builder("ecommerce.catalog.loads", productService, s -> s.getProductLoadStats().getCollapsed())
+                 .tag("result", "collapsed")
+                 .description("Product cache misses that loaded from the database, or joined a load in flight")
+                 .register(registry);
+      };
+   }
+
+   @Bean
+   public MeterBinder idempotencyMetrics(IdempotencyService idempotencyService) {
+      return registry -> {
+         String description = "Idempotent requests that ran, replayed a stored response or waited for a duplicate";
+         FunctionCounter.builder("ecommerce.idempotency.requests", idempotencyService, IdempotencyService::getExecuted)
+                 .tag("result", "executed")
+                 .description(description)
+                 .register(registry);
+         FunctionCounter.builder("ecommerce.idempotency.requests", idempotencyService, IdempotencyService::getReplayed)
+                 .tag("result", "replayed")
+                 .description(description)
+                 .register(registry);
+         FunctionCounter.builder("ecommerce.idempotency.requests", idempotencyService, IdempotencyService::getCoalesced)
+                 .tag("result", "coalesced")
+                 .description(description)
+                 .register(registry);
+      };
+   }
+
+   /**
+    * Outbox backlog; counted in the database on every scrape
+    */
+   @Bean
+   public MeterBinder outboxMetrics(OutboxEventRepository outboxEventRepository) {
+      return registry -> {
+         for (OutboxEvent.Status status : OutboxEvent.Status.values()) {
+            Gauge.builder("ecommerce.outbox.events", outboxEventRepository, r -> r.countByStatus(status))
+                    .tag("status", status.name().toLowerCase())
+                    .description("Outbox events waiting for dispatch, or parked after the last attempt")
+                    .register(registry);
+         }
+      };
+   }
+}
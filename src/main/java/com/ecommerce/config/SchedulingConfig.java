@@ -0,0 +1,12 @@
+package com.ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs (stock ledger flushing etc.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.config;
+
+import com.ecommerce.util.SqlStats;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Counts the SQL work of async request processing, such as streamed exports, into the request's statistics.
+ * The StreamingResponseBody runs on an MVC task thread after the request thread has left {@link SqlStatsFilter},
+ * which records the statistics when the async request completes.
+ */
+public class SqlStatsAsyncInterceptor implements CallableProcessingInterceptor {
+
+   @Override
+   public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+      Object stats = request.getAttribute(SqlStatsFilter.STATS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+      if (stats instanceof SqlStats requestStats) {
+         SqlStats.resume(requestStats);
+      }
+   }
+
+   @Override
+   public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+      SqlStats.stop();
+   }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.config;
+
+import com.ecommerce.util.CountingConnectionProvider;
+import com.ecommerce.util.CountingDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts the SQL statements, rows and JDBC time of each HTTP request (see {@link SqlStatsFilter}).
+ * Hibernate gets its connections through {@link CountingConnectionProvider} instead of straight from the pool,
+ * and JdbcTemplate through {@link CountingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsConfig implements WebMvcConfigurer {
+
+   @Bean
+   public HibernatePropertiesCustomizer countingConnectionProvider(DataSource dataSource) {
+      return properties -> properties.put(AvailableSettings.CONNECTION_PROVIDER, new CountingConnectionProvider(dataSource));
+   }
+
+   @Bean
+   public static BeanPostProcessor countingJdbcTemplate() {
+      return new BeanPostProcessor() {
+         @Override
+         public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof JdbcTemplate jdbcTemplate && jdbcTemplate.getDataSource() != null) {
+               jdbcTemplate.setDataSource(new CountingDataSource(jdbcTemplate.getDataSource()));
+            }
+            return bean;
+         }
+      };
+   }
+
+   @Override
+   public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+      configurer.registerCallableInterceptors(new SqlStatsAsyncInterceptor());
+   }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.config;
+
+import com.ecommerce.util.SqlStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the SQL work of each request, publishes it per endpoint as ecommerce.http.sql.* metrics,
+ * and logs requests that were slow or ran an unusual number of statements, with the statement they
+ * repeated most, so N+1 queries can be found without SQL logging.
+ * Streamed responses are recorded when the async request completes, including the work done while streaming.
+ */
+@Component
+@ConditionalOnProperty(name = "sql.stats.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+   /**
+    * Request attribute holding the request's statistics, for the async part of the request
+    */
+   static final String STATS_ATTRIBUTE = SqlStatsFilter.class.getName() + ".stats";
+
+   private static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+   private final MeterRegistry meterRegistry;
+   private final long slowRequestNanos;
+   private final int slowRequestStatements;
+
+   public SqlStatsFilter(MeterRegistry meterRegistry,
+                         @Value("${sql.stats.slow-request-ms:500}") long slowRequestMs,
+                         @Value("${sql.stats.slow-request-statements:25}") int slowRequestStatements) {
+      this.meterRegistry = meterRegistry;
+      this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMs);
+      this.slowRequestStatements = slowRequestStatements;
+   }
+
+   @Override
+   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+           throws ServletException, IOException {
+      SqlStats stats = SqlStats.start();
+      request.setAttribute(STATS_ATTRIBUTE, stats);
+      long start = System.nanoTime();
+      try {
+         chain.doFilter(request, response);
+      } finally {
+         SqlStats.stop();
+         if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+               @Override
+               public void onComplete(AsyncEvent event) {
+                  record(request, response, stats, System.nanoTime() - start);
+               }
+
+               @Override
+               public void onTimeout(AsyncEvent event) {
+               }
+
+               @Override
+               public void onError(AsyncEvent event) {
+               }
+
+               @Override
+               public void onStartAsync(AsyncEvent event) {
+               }
+            });
+         } else {
+            record(request, response, stats, System.nanoTime() - start);
+         }
+      }
+   }
+
+   private void record(HttpServletRequest request, HttpServletResponse response, SqlStats stats, long elapsedNanos) {
+      Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+      String method = request.getMethod();
+
+      DistributionSummary.builder("ecommerce.http.sql.statements")
+              .description("SQL statements executed per request")
+              .tags("method", method, "uri", uri)
+              .register(meterRegistry)
+              .record(stats.getStatements());
+      DistributionSummary.builder("ecommerce.http.sql.rows")
+              .description("Rows read or written per request")
+              .tags("method", method, "uri", uri)
+              .register(meterRegistry)
+              .record(stats.getRows());
+      Timer.builder("ecommerce.http.sql.time")
+              .description("Time spent executing SQL per request")
+              .tags("method", method, "uri", uri)
+              .register(meterRegistry)
+              .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+      if (elapsedNanos >= slowRequestNanos || stats.getStatements() >= slowRequestStatements) {
+         log.warn("Slow request {} {} ({}) status {} in {} ms: {} statements, {} rows, {} ms in JDBC; "
+                         + "most repeated ({}x): {}",
+                 method, request.getRequestURI(), uri, response.getStatus(),
+                 TimeUnit.NANOSECONDS.toMillis(elapsedNanos), stats.getStatements(), stats.getRows(),
+                 TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()), stats.getMostRepeatedCount(),
+                 abbreviate(stats.getMostRepeatedSql()));
+      }
+   }
+
+   private static String abbreviate(String sql) {
+      if (sql == null) {
+         return "-";
+      }
+      String oneLine = sql.replaceAll("\\s+", " ").trim();
+      return oneLine.length() <= MAX_LOGGED_SQL_LENGTH ? oneLine : oneLine.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+   }
+}
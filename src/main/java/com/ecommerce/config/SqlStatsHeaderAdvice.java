@@ -0,0 +1,40 @@
+package com.ecommerce.config;
+
+import com.ecommerce.util.SqlStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Adds the request's SQL statistics as X-SQL-* response headers, for spotting N+1 queries from curl
+ * or the browser. The numbers cover the work done up to writing the body.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "sql.stats.response-headers", havingValue = "true")
+public class SqlStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+   @Override
+   public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+      return true;
+   }
+
+   @Override
+   public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                 Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                 ServerHttpRequest request, ServerHttpResponse response) {
+      SqlStats stats = SqlStats.current();
+      if (stats != null) {
+         response.getHeaders().set("X-SQL-Statements", String.valueOf(stats.getStatements()));
+         response.getHeaders().set("X-SQL-Rows", String.valueOf(stats.getRows()));
+         response.getHeaders().set("X-SQL-Time-Ms", String.format(Locale.ROOT, "%.2f", stats.getJdbcNanos() / 1e6));
+      }
+      return body;
+   }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Reports whether requests run on virtual or platform threads.
+ * Virtual threads are switched on with spring.threads.virtual.enabled and need Java 21 or later;
+ * setting it on an older JVM fails startup. With them the JDBC connection pool, not the request
+ * thread pool, bounds database concurrency.
+ */
+@Configuration
+@Slf4j
+public class ThreadingConfig {
+
+   static final int VIRTUAL_THREADS_MIN_JAVA = 21;
+
+   private final Environment environment;
+   private final DataSource dataSource;
+
+   public ThreadingConfig(Environment environment, DataSource dataSource) {
+      requireVirtualThreadSupport(environment, Runtime.version().feature());
+      this.environment = environment;
+      this.dataSource = dataSource;
+   }
+
+   /**
+    * Fail startup when virtual threads are requested on a JVM without them,
+    * instead of silently running on platform threads
+    */
+   static void requireVirtualThreadSupport(Environment environment, int javaVersion) {
+      if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+              && javaVersion < VIRTUAL_THREADS_MIN_JAVA) {
+         throw new IllegalStateException("spring.threads.virtual.enabled=true requires Java "
+                 + VIRTUAL_THREADS_MIN_JAVA + " or later, but this JVM is Java " + javaVersion
+                 + "; run on Java " + VIRTUAL_THREADS_MIN_JAVA + "+ or remove the setting");
+      }
+   }
+
+   @EventListener(ApplicationReadyEvent.class)
+   public void reportThreadingMode() {
+      String poolSize = dataSource instanceof HikariDataSource hikari
+              ? String.valueOf(hikari.getMaximumPoolSize()) : "unknown";
+
+      if (Threading.VIRTUAL.isActive(environment)) {
+         log.info("Requests run on virtual threads; JDBC connection pool size {}", poolSize);
+      } else {
+         log.info("Requests run on platform threads (max {}); JDBC connection pool size {}",
+                 environment.getProperty("server.tomcat.threads.max", "200"), poolSize);
+      }
+   }
+}
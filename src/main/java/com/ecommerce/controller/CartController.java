@@ -1,13 +1,19 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.AddToCartRequest;
+import com.ecommerce.dto.CartDeltaResponse;
 import com.ecommerce.dto.CartResponse;
 import com.ecommerce.dto.UpdateCartRequest;
+import com.ecommerce.model.CartItem;
 import com.ecommerce.service.CartService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 /**
  * REST Controller for shopping cart operations
@@ -15,19 +21,25 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/cart")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:3000}")
+@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:3000}", exposedHeaders = HttpHeaders.ETAG)
 public class CartController {
 
    private final CartService cartService;
 
    /**
-    * Get shopping cart for a session
+    * Get shopping cart for a session. Sends an ETag, and answers 304 Not Modified
+    * without building the response when If-None-Match still matches.
+    * The cart is loaded once, so the ETag always describes the body sent with it.
     * @param sessionId The session identifier
     * @return Cart response with items and total
     */
    @GetMapping("/{sessionId}")
-   public ResponseEntity<CartResponse> getCart(@PathVariable String sessionId) {
-      CartResponse response = cartService.getCart(sessionId);
+   public ResponseEntity<CartResponse> getCart(@PathVariable String sessionId, WebRequest webRequest) {
+      List<CartItem> items = cartService.getCartItems(sessionId);
+      if (webRequest.checkNotModified(cartService.getCartETag(items))) {
+         return null;
+      }
+      CartResponse response = cartService.toCartResponse(items, sessionId);
       return ResponseEntity.ok(response);
    }
 
@@ -35,12 +47,22 @@ public class CartController {
     * Add item to shopping cart
     * @param sessionId The session identifier
     * @param request Add to cart request with product ID and quantity
-    * @return Updated cart response
+    * @param delta Return only the changed line and new totals (default false)
+    * @return Updated cart response, or cart delta response
     */
    @PostMapping("/{sessionId}/items")
-   public ResponseEntity<CartResponse> addToCart(
+   public ResponseEntity<?> addToCart(
            @PathVariable String sessionId,
-           @Valid @RequestBody AddToCartRequest request) {
+           @Valid @RequestBody AddToCartRequest request,
+           @RequestParam(defaultValue = "false") boolean delta) {
+      if (delta) {
+         CartDeltaResponse response = cartService.addToCartDelta(
+                 sessionId,
+                 request.getProductId(),
+                 request.getQuantity()
+         );
+         return ResponseEntity.ok(response);
+      }
       CartResponse response = cartService.addToCart(
               sessionId,
               request.getProductId(),
@@ -54,13 +76,23 @@ public class CartController {
     * @param sessionId The session identifier
     * @param cartItemId The cart item ID to update
     * @param request Update cart request with new quantity
-    * @return Updated cart response
+    * @param delta Return only the changed line and new totals (default false)
+    * @return Updated cart response, or cart delta response
     */
    @PutMapping("/{sessionId}/items/{cartItemId}")
-   public ResponseEntity<CartResponse> updateCartItem(
+   public ResponseEntity<?> updateCartItem(
            @PathVariable String sessionId,
            @PathVariable Long cartItemId,
-           @Valid @RequestBody UpdateCartRequest request) {
+           @Valid @RequestBody UpdateCartRequest request,
+           @RequestParam(defaultValue = "false") boolean delta) {
+      if (delta) {
+         CartDeltaResponse response = cartService.updateCartItemDelta(
+                 sessionId,
+                 cartItemId,
+                 request.getQuantity()
+         );
+         return ResponseEntity.ok(response);
+      }
       CartResponse response = cartService.updateCartItem(
               sessionId,
               cartItemId,
@@ -73,12 +105,18 @@ public class CartController {
     * Remove item from cart
     * @param sessionId The session identifier
     * @param cartItemId The cart item ID to remove
-    * @return Updated cart response
+    * @param delta Return only the removed line ID and new totals (default false)
+    * @return Updated cart response, or cart delta response
     */
    @DeleteMapping("/{sessionId}/items/{cartItemId}")
-   public ResponseEntity<CartResponse> removeFromCart(
+   public ResponseEntity<?> removeFromCart(
            @PathVariable String sessionId,
-           @PathVariable Long cartItemId) {
+           @PathVariable Long cartItemId,
+           @RequestParam(defaultValue = "false") boolean delta) {
+      if (delta) {
+         CartDeltaResponse response = cartService.removeFromCartDelta(sessionId, cartItemId);
+         return ResponseEntity.ok(response);
+      }
       CartResponse response = cartService.removeFromCart(sessionId, cartItemId);
       return ResponseEntity.ok(response);
    }
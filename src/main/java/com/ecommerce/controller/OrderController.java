@@ -1,18 +1,25 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.config.ExportTimeout;
 import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.CursorPageResponse;
 import com.ecommerce.dto.OrderResponse;
 import com.ecommerce.dto.PaymentRequest;
 import com.ecommerce.model.Order;
 import com.ecommerce.service.OrderService;
+import com.ecommerce.util.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,6 +33,8 @@ import java.util.List;
 public class OrderController {
 
    private final OrderService orderService;
+   private final ObjectMapper objectMapper;
+   private final ExportTimeout exportTimeout;
 
    /**
     * Create a new order from cart
@@ -33,8 +42,10 @@ public class OrderController {
     * @return Created order response
     */
    @PostMapping
-   public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request) {
-      OrderResponse response = orderService.createOrder(request);
+   public ResponseEntity<OrderResponse> createOrder(
+           @Valid @RequestBody CreateOrderRequest request,
+           @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+      OrderResponse response = orderService.createOrder(request, idempotencyKey);
       return ResponseEntity.status(HttpStatus.CREATED).body(response);
    }
 
@@ -53,6 +64,47 @@ public class OrderController {
       return ResponseEntity.ok(orders);
    }
 
+   /**
+    * Get orders with keyset (cursor) pagination
+    * @param cursor Continuation token from the previous page (omit for the first page)
+    * @param sort Sort key, id (default) or createdAt
+    * @param size Page size (default 20, at most 100)
+    * @param includeTotal Whether to count all orders (default false)
+    * @return Page of orders with the cursor of the next page
+    */
+   @GetMapping("/scroll")
+   public ResponseEntity<CursorPageResponse<OrderResponse>> scrollOrders(
+           @RequestParam(required = false) String cursor,
+           @RequestParam(required = false) String sort,
+           @RequestParam(defaultValue = "20") int size,
+           @RequestParam(defaultValue = "false") boolean includeTotal) {
+      CursorPageResponse<OrderResponse> orders = orderService.scrollOrders(cursor, sort, size, includeTotal);
+      return ResponseEntity.ok(orders);
+   }
+
+   /**
+    * Export all orders, one line (NDJSON) or one row per order item (CSV).
+    * The response is streamed while orders are read, so memory use does not depend on the number of orders.
+    * @param format ndjson (default) or csv; a CSV export always starts with its header row
+    * @return Streamed export, allowed to run for export.timeout
+    */
+   @GetMapping("/export")
+   public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                                                        WebRequest webRequest) {
+      ExportWriter.Format exportFormat = ExportWriter.Format.of(format);
+      exportTimeout.applyTo(webRequest);
+      StreamingResponseBody body = out -> {
+         try (ExportWriter writer = ExportWriter.forOrders(exportFormat, objectMapper, out)) {
+            orderService.exportOrders(writer::writeOrder);
+         }
+      };
+      return ResponseEntity.ok()
+              .contentType(exportFormat.getMediaType())
+              .header(HttpHeaders.CONTENT_DISPOSITION,
+                      "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+              .body(body);
+   }
+
    /**
     * Get order by ID
     * @param id Order ID
@@ -101,16 +153,19 @@ public class OrderController {
    }
 
    /**
-    * Process payment for an order
+    * Process payment for an order. Retries with the same transaction ID or Idempotency-Key
+    * return the first response instead of being applied again.
     * @param id Order ID
     * @param request Payment request with transaction details
+    * @param idempotencyKey Optional key identifying the payment attempt
     * @return Updated order response
     */
    @PostMapping("/{id}/payment")
    public ResponseEntity<OrderResponse> processPayment(
            @PathVariable Long id,
-           @Valid @RequestBody PaymentRequest request) {
-      OrderResponse response = orderService.processPayment(id, request);
+           @Valid @RequestBody PaymentRequest request,
+           @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+      OrderResponse response = orderService.processPayment(id, request, idempotencyKey);
       return ResponseEntity.ok(response);
    }
 
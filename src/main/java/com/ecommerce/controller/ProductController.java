@@ -1,16 +1,26 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.config.ExportTimeout;
+import com.ecommerce.dto.CategoryResponse;
+import com.ecommerce.dto.CursorPageResponse;
 import com.ecommerce.dto.ProductRequest;
 import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.model.Product;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.util.ExportWriter;
+import com.ecommerce.util.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -20,10 +30,12 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:3000}")
+@CrossOrigin(origins = "${cors.allowed-origins:http://localhost:3000}", exposedHeaders = HttpHeaders.ETAG)
 public class ProductController {
 
    private final ProductService productService;
+   private final ObjectMapper objectMapper;
+   private final ExportTimeout exportTimeout;
 
    /**
     * Get all active products with pagination
@@ -41,13 +53,60 @@ public class ProductController {
    }
 
    /**
-    * Get product by ID
+    * Get active products with keyset (cursor) pagination
+    * @param cursor Continuation token from the previous page (omit for the first page)
+    * @param sort Sort key, id (default) or price
+    * @param size Page size (default 20, at most 100)
+    * @param includeTotal Whether to count all active products (default false)
+    * @return Page of products with the cursor of the next page
+    */
+   @GetMapping("/scroll")
+   public ResponseEntity<CursorPageResponse<ProductResponse>> scrollProducts(
+           @RequestParam(required = false) String cursor,
+           @RequestParam(required = false) String sort,
+           @RequestParam(defaultValue = "20") int size,
+           @RequestParam(defaultValue = "false") boolean includeTotal) {
+      CursorPageResponse<ProductResponse> products = productService.scrollActiveProducts(cursor, sort, size, includeTotal);
+      return ResponseEntity.ok(products);
+   }
+
+   /**
+    * Export all products, one line (NDJSON) or row (CSV) per product.
+    * The response is streamed while products are read, so memory use does not depend on the number of products.
+    * @param format ndjson (default) or csv; a CSV export always starts with its header row
+    * @return Streamed export, allowed to run for export.timeout
+    */
+   @GetMapping("/export")
+   public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                        WebRequest webRequest) {
+      ExportWriter.Format exportFormat = ExportWriter.Format.of(format);
+      exportTimeout.applyTo(webRequest);
+      StreamingResponseBody body = out -> {
+         try (ExportWriter writer = ExportWriter.forProducts(exportFormat, objectMapper, out)) {
+            productService.exportProducts(writer::writeProduct);
+         }
+      };
+      return ResponseEntity.ok()
+              .contentType(exportFormat.getMediaType())
+              .header(HttpHeaders.CONTENT_DISPOSITION,
+                      "attachment; filename=\"products." + exportFormat.getExtension() + "\"")
+              .body(body);
+   }
+
+   /**
+    * Get product by ID. Sends an ETag derived from the product version, and answers
+    * 304 Not Modified without building the response when If-None-Match still matches.
+    * The product is loaded once, so the ETag always describes the body sent with it.
     * @param id Product ID
     * @return Product response
     */
    @GetMapping("/{id}")
-   public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-      ProductResponse response = productService.getProductById(id);
+   public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest webRequest) {
+      Product product = productService.getProductEntityById(id);
+      if (webRequest.checkNotModified(productService.getProductETag(product))) {
+         return null;
+      }
+      ProductResponse response = productService.toProductResponse(product);
       return ResponseEntity.ok(response);
    }
 
@@ -64,12 +123,18 @@ public class ProductController {
 
    /**
     * Search products by keyword
-    * @param keyword Search keyword
-    * @return List of matching products
+    * @param keyword Search keyword (every word is matched as a prefix)
+    * @param page Page number (default 0)
+    * @param size Page size (default 20, at most 100)
+    * @return List of matching products, best match first
     */
    @GetMapping("/search")
-   public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String keyword) {
-      List<ProductResponse> products = productService.searchProducts(keyword);
+   public ResponseEntity<List<ProductResponse>> searchProducts(
+           @RequestParam String keyword,
+           @RequestParam(defaultValue = "0") int page,
+           @RequestParam(defaultValue = "20") int size) {
+      Pageable pageable = PageRequest.of(page, KeysetCursor.pageSize(size));
+      List<ProductResponse> products = productService.searchProducts(keyword, pageable);
       return ResponseEntity.ok(products);
    }
 
@@ -118,4 +183,14 @@ public class ProductController {
       List<String> categories = productService.getAllCategories();
       return ResponseEntity.ok(categories);
    }
+
+   /**
+    * Get all product categories with product counts
+    * @return List of categories with total and active product counts
+    */
+   @GetMapping("/categories/counts")
+   public ResponseEntity<List<CategoryResponse>> getCategoriesWithCounts() {
+      List<CategoryResponse> categories = productService.getCategoriesWithCounts();
+      return ResponseEntity.ok(categories);
+   }
 }
\ No newline at end of file
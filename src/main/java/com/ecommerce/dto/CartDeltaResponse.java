@@ -0,0 +1,41 @@
+package com.ecommerce.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Lightweight response for a cart change, containing only the changed line and the new totals
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartDeltaResponse {
+
+   /**
+    * The added or updated cart item (null when an item was removed)
+    */
+   private CartItemResponse item;
+
+   /**
+    * ID of the removed cart item (null when an item was added or updated)
+    */
+   private Long removedItemId;
+
+   /**
+    * Total amount for all items in cart
+    */
+   private BigDecimal totalAmount;
+
+   /**
+    * Total number of items in cart
+    */
+   private Integer itemCount;
+
+   /**
+    * Session identifier for the cart
+    */
+   private String sessionId;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.dto;
+
+import lombok.*;
+
+/**
+ * Response object for a product category and its product counts
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryResponse {
+
+   /**
+    * Category name
+    */
+   private String name;
+
+   /**
+    * Number of products in the category (active and inactive)
+    */
+   private Long productCount;
+
+   /**
+    * Number of active products in the category
+    */
+   private Long activeProductCount;
+}
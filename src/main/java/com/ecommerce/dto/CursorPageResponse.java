@@ -0,0 +1,41 @@
+package com.ecommerce.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Response object for one page of a keyset (cursor) paginated listing
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+   /**
+    * Items of this page
+    */
+   private List<T> content;
+
+   /**
+    * Opaque token to pass as cursor to fetch the next page (null on the last page)
+    */
+   private String nextCursor;
+
+   /**
+    * Whether more items follow this page
+    */
+   private boolean hasNext;
+
+   /**
+    * Number of items in this page
+    */
+   private Integer size;
+
+   /**
+    * Total number of items, only computed when requested
+    */
+   private Long totalElements;
+}
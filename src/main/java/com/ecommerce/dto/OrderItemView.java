@@ -0,0 +1,33 @@
+package com.ecommerce.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection of an order item row joined with its product, selected without loading entities
+ */
+@Getter
+@AllArgsConstructor
+public class OrderItemView {
+
+   private Long orderId;
+
+   private Long id;
+
+   private Integer quantity;
+
+   private BigDecimal priceAtPurchase;
+
+   private BigDecimal subtotal;
+
+   private ProductResponse product;
+
+   public OrderItemView(Long orderId, Long id, Integer quantity, BigDecimal priceAtPurchase, BigDecimal subtotal,
+                        Long productId, String productName, String productDescription, BigDecimal productPrice,
+                        Integer productStockQuantity, String productCategory, String productImageUrl,
+                        Boolean productActive) {
+      this(orderId, id, quantity, priceAtPurchase, subtotal, new ProductResponse(productId, productName,
+              productDescription, productPrice, productStockQuantity, productCategory, productImageUrl, productActive));
+   }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outbox payload describing a placed order, shared by the post-checkout handlers
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPlacedEvent {
+
+   /**
+    * ID of the placed order
+    */
+   private Long orderId;
+
+   /**
+    * Human-readable order number
+    */
+   private String orderNumber;
+
+   /**
+    * Session whose cart was checked out
+    */
+   private String sessionId;
+
+   /**
+    * IDs of the cart items that were checked out
+    */
+   private List<Long> cartItemIds;
+
+   /**
+    * Customer name
+    */
+   private String customerName;
+
+   /**
+    * Customer email
+    */
+   private String customerEmail;
+
+   /**
+    * Total amount of the order
+    */
+   private BigDecimal totalAmount;
+
+   /**
+    * Total number of units ordered
+    */
+   private Integer units;
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Order;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an order row, selected without loading the Order entity
+ */
+@Getter
+@AllArgsConstructor
+public class OrderView {
+
+   private Long id;
+
+   private String orderNumber;
+
+   private String customerName;
+
+   private String customerEmail;
+
+   private String shippingAddress;
+
+   private BigDecimal totalAmount;
+
+   private Order.OrderStatus status;
+
+   private Order.PaymentStatus paymentStatus;
+
+   private LocalDateTime orderDate;
+
+   private LocalDateTime createdAt;
+
+   private LocalDateTime updatedAt;
+}
@@ -1,5 +1,8 @@
 package com.ecommerce.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,11 +15,24 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Global exception handler for the application
+ * Global exception handler for the application.
+ * Stock rejections and optimistic lock conflicts are also counted, as they show contention on hot products.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+   private final Counter stockRejections;
+   private final Counter lockConflicts;
+
+   public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+      this.stockRejections = Counter.builder("ecommerce.stock.rejections")
+              .description("Requests rejected for insufficient stock")
+              .register(meterRegistry);
+      this.lockConflicts = Counter.builder("ecommerce.optimistic.lock.conflicts")
+              .description("Writes that lost an optimistic lock race and must be retried by the client")
+              .register(meterRegistry);
+   }
+
    /**
     * Handle resource not found exceptions
     */
@@ -36,6 +52,7 @@ public class GlobalExceptionHandler {
     */
    @ExceptionHandler(InsufficientStockException.class)
    public ResponseEntity<ErrorResponse> handleInsufficientStockException(InsufficientStockException ex) {
+      stockRejections.increment();
       ErrorResponse error = ErrorResponse.builder()
               .timestamp(LocalDateTime.now())
               .status(HttpStatus.BAD_REQUEST.value())
@@ -45,6 +62,21 @@ public class GlobalExceptionHandler {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
    }
 
+   /**
+    * Handle writes that raced with a concurrent update of the same entity
+    */
+   @ExceptionHandler(OptimisticLockingFailureException.class)
+   public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+      lockConflicts.increment();
+      ErrorResponse error = ErrorResponse.builder()
+              .timestamp(LocalDateTime.now())
+              .status(HttpStatus.CONFLICT.value())
+              .error("Conflict")
+              .message("The resource was modified concurrently, please retry")
+              .build();
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+   }
+
    /**
     * Handle invalid operation exceptions
     */
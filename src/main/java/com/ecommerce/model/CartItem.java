@@ -10,7 +10,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = {
+        @Index(name = "idx_cart_items_session_product", columnList = "session_id, product_id"),
+        @Index(name = "idx_cart_items_session_updated", columnList = "session_id, updated_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +24,8 @@ import java.time.LocalDateTime;
 public class CartItem {
 
    @Id
-   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_item_seq")
+   @SequenceGenerator(name = "cart_item_seq", sequenceName = "cart_item_seq", allocationSize = 50)
    @EqualsAndHashCode.Include
    private Long id;
 
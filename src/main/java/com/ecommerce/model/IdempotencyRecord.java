@@ -0,0 +1,54 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request that must run at most once, keyed by scope and idempotency key.
+ * Written in the same transaction as the request's changes, so a retried request can replay the
+ * stored response instead of repeating the work.
+ */
+@Entity
+@Table(name = "idempotency_records",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_records_key", columnNames = {"scope", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_records_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = "response")
+public class IdempotencyRecord {
+
+   @Id
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_record_seq")
+   @SequenceGenerator(name = "idempotency_record_seq", sequenceName = "idempotency_record_seq", allocationSize = 50)
+   @EqualsAndHashCode.Include
+   private Long id;
+
+   @Column(nullable = false, length = 50)
+   private String scope;
+
+   @Column(name = "idempotency_key", nullable = false)
+   private String idempotencyKey;
+
+   /**
+    * Digest of the request the key was first used with
+    */
+   @Column(nullable = false, length = 64)
+   private String fingerprint;
+
+   /**
+    * JSON of the response returned the first time (MEDIUMTEXT on MySQL)
+    */
+   @Column(nullable = false, length = 16_777_215)
+   private String response;
+
+   @CreationTimestamp
+   @Column(name = "created_at", nullable = false, updatable = false)
+   private LocalDateTime createdAt;
+}
@@ -13,7 +13,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at", columnList = "created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,7 +26,8 @@ import java.util.UUID;
 public class Order {
 
    @Id
-   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+   @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
    @EqualsAndHashCode.Include
    private Long id;
 
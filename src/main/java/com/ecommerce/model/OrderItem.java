@@ -17,7 +17,8 @@ import java.math.BigDecimal;
 public class OrderItem {
 
    @Id
-   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+   @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
    @EqualsAndHashCode.Include
    private Long id;
 
@@ -0,0 +1,80 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Side effect of a committed business transaction, written in the same transaction and
+ * processed asynchronously by the outbox dispatcher. Deleted once it has been handled.
+ * A dispatcher claims an event by stamping it with its claim token and pushing next_attempt_at
+ * past the lease, so no other dispatcher picks it up while it is being handled.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_outbox_events_claim", columnList = "claim_token")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class OutboxEvent {
+
+   @Id
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+   @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+   @EqualsAndHashCode.Include
+   private Long id;
+
+   @Enumerated(EnumType.STRING)
+   @Column(nullable = false, length = 50)
+   private EventType eventType;
+
+   @Column(name = "aggregate_id", nullable = false)
+   private Long aggregateId;
+
+   /**
+    * JSON of the event (MEDIUMTEXT on MySQL), which lists every ordered cart line
+    */
+   @Column(nullable = false, length = 16_777_215)
+   private String payload;
+
+   @Enumerated(EnumType.STRING)
+   @Column(nullable = false, length = 20)
+   @Builder.Default
+   private Status status = Status.PENDING;
+
+   @Column(nullable = false)
+   @Builder.Default
+   private Integer attempts = 0;
+
+   @Column(name = "next_attempt_at", nullable = false)
+   private LocalDateTime nextAttemptAt;
+
+   @Column(name = "claim_token", length = 36)
+   private String claimToken;
+
+   @Column(length = 1000)
+   private String lastError;
+
+   @CreationTimestamp
+   @Column(nullable = false, updatable = false)
+   private LocalDateTime createdAt;
+
+   public enum EventType {
+      CART_CLEANUP,
+      ORDER_CONFIRMATION,
+      ORDER_ANALYTICS
+   }
+
+   public enum Status {
+      PENDING,
+      FAILED
+   }
+}
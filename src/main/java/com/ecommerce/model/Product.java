@@ -10,7 +10,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price", columnList = "price, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +23,8 @@ import java.time.LocalDateTime;
 public class Product {
 
    @Id
-   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+   @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
    @EqualsAndHashCode.Include
    private Long id;
 
@@ -0,0 +1,39 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Journal of stock reserved in memory for hot products but not yet applied to products.stock_quantity.
+ * Written in the checkout transaction and deleted once the flusher has applied it.
+ */
+@Entity
+@Table(name = "stock_ledger_entries", indexes = @Index(name = "idx_stock_ledger_product", columnList = "product_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class StockLedgerEntry {
+
+   @Id
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_ledger_entry_seq")
+   @SequenceGenerator(name = "stock_ledger_entry_seq", sequenceName = "stock_ledger_entry_seq", allocationSize = 50)
+   @EqualsAndHashCode.Include
+   private Long id;
+
+   @Column(name = "product_id", nullable = false)
+   private Long productId;
+
+   @Column(nullable = false)
+   private Integer quantity;
+
+   @CreationTimestamp
+   @Column(nullable = false, updatable = false)
+   private LocalDateTime createdAt;
+}
@@ -1,11 +1,17 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.CartItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,15 +26,60 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     */
    List<CartItem> findBySessionId(String sessionId);
 
+   /**
+    * Find all cart items by session ID together with their products in one join
+    */
+   @Query("SELECT c FROM CartItem c JOIN FETCH c.product WHERE c.sessionId = :sessionId")
+   List<CartItem> findBySessionIdWithProduct(@Param("sessionId") String sessionId);
+
    /**
     * Find cart item by session ID and product ID
     */
    Optional<CartItem> findBySessionIdAndProductId(String sessionId, Long productId);
 
    /**
-    * Delete all cart items for a session
+    * Update the quantity and subtotal of a cart item without loading it
+    */
+   @Transactional
+   @Modifying
+   @Query("UPDATE CartItem c SET c.quantity = :quantity, c.subtotal = :subtotal, c.updatedAt = :now WHERE c.id = :id")
+   int updateQuantity(@Param("id") Long id, @Param("quantity") Integer quantity,
+                      @Param("subtotal") BigDecimal subtotal, @Param("now") LocalDateTime now);
+
+   /**
+    * Find sessions that have cart items last updated before the cutoff, in session ID order after the given one.
+    * Walks idx_cart_items_session_updated in order, so no sort is needed.
+    */
+   @Query("SELECT c.sessionId FROM CartItem c WHERE c.updatedAt < :cutoff AND c.sessionId > :afterSessionId "
+           + "GROUP BY c.sessionId ORDER BY c.sessionId")
+   List<String> findStaleSessionIds(@Param("cutoff") LocalDateTime cutoff,
+                                    @Param("afterSessionId") String afterSessionId,
+                                    Pageable pageable);
+
+   /**
+    * Of the given sessions, find those that still have a cart item updated at or after the cutoff (once per item).
+    * The read locks that range of idx_cart_items_session_updated, so until the transaction ends no item of
+    * these sessions can be added or touched; a session found inactive stays inactive until it is deleted.
+    */
+   @Query(value = "SELECT session_id FROM cart_items WHERE session_id IN (:sessionIds) AND updated_at >= :cutoff "
+           + "FOR UPDATE", nativeQuery = true)
+   List<String> findActiveSessionIdsForUpdate(@Param("sessionIds") Collection<String> sessionIds,
+                                              @Param("cutoff") LocalDateTime cutoff);
+
+   /**
+    * Delete the cart items of the given sessions that were last updated before the cutoff
+    */
+   @Transactional
+   @Modifying
+   @Query("DELETE FROM CartItem c WHERE c.sessionId IN :sessionIds AND c.updatedAt < :cutoff")
+   int deleteStaleBySessionIds(@Param("sessionIds") Collection<String> sessionIds,
+                               @Param("cutoff") LocalDateTime cutoff);
+
+   /**
+    * Delete all cart items for a session in a single statement
     */
    @Transactional
    @Modifying
-   void deleteBySessionId(String sessionId);
+   @Query("DELETE FROM CartItem c WHERE c.sessionId = :sessionId")
+   int deleteBySessionId(@Param("sessionId") String sessionId);
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for IdempotencyRecord entity
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+   /**
+    * Find the record of a key within a scope
+    */
+   Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+   /**
+    * Delete the record of a key within a scope
+    */
+   @Modifying
+   @Query("DELETE FROM IdempotencyRecord r WHERE r.scope = :scope AND r.idempotencyKey = :key")
+   int delete(@Param("scope") String scope, @Param("key") String key);
+
+   /**
+    * Delete the record of a key within a scope if it was created before the cutoff
+    */
+   @Modifying
+   @Query("DELETE FROM IdempotencyRecord r WHERE r.scope = :scope AND r.idempotencyKey = :key AND r.createdAt < :cutoff")
+   int deleteCreatedBefore(@Param("scope") String scope, @Param("key") String key, @Param("cutoff") LocalDateTime cutoff);
+
+   /**
+    * Delete records created before the cutoff
+    */
+   @Modifying
+   @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+   int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,14 +1,69 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.OrderItemView;
+import com.ecommerce.dto.OrderView;
 import com.ecommerce.model.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-   Optional<Order> findByOrderNumber(String orderNumber);
-   List<Order> findByCustomerEmail(String email);
-}
\ No newline at end of file
+   @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+   Optional<Order> findWithItemsById(Long id);
+
+   String ORDER_VIEW = "SELECT new com.ecommerce.dto.OrderView(o.id, o.orderNumber, o.customerName, "
+           + "o.customerEmail, o.shippingAddress, o.totalAmount, o.status, o.paymentStatus, "
+           + "o.orderDate, o.createdAt, o.updatedAt) FROM Order o ";
+
+   @Query(value = ORDER_VIEW, countQuery = "SELECT COUNT(o) FROM Order o")
+   Page<OrderView> findViews(Pageable pageable);
+
+   /**
+    * All orders in ID order, read with a JDBC fetch size instead of materializing the result
+    */
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+   @Query(ORDER_VIEW + "ORDER BY o.id")
+   Stream<OrderView> streamAllViews();
+
+   @Query(ORDER_VIEW + "WHERE o.id > :afterId ORDER BY o.id")
+   List<OrderView> findViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+   @Query(ORDER_VIEW + "ORDER BY o.createdAt, o.id")
+   List<OrderView> findViewsOrderByCreatedAt(Pageable pageable);
+
+   @Query(ORDER_VIEW + "WHERE o.createdAt > :createdAt OR (o.createdAt = :createdAt AND o.id > :afterId) "
+           + "ORDER BY o.createdAt, o.id")
+   List<OrderView> findViewsAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                           @Param("afterId") Long afterId, Pageable pageable);
+
+   @Query(ORDER_VIEW + "WHERE o.id = :id")
+   Optional<OrderView> findViewById(@Param("id") Long id);
+
+   @Query(ORDER_VIEW + "WHERE o.orderNumber = :orderNumber")
+   Optional<OrderView> findViewByOrderNumber(@Param("orderNumber") String orderNumber);
+
+   @Query(ORDER_VIEW + "WHERE o.customerEmail = :email ORDER BY o.id")
+   List<OrderView> findViewsByCustomerEmail(@Param("email") String email);
+
+   /**
+    * Items of the given orders joined with their products, in insertion order
+    */
+   @Query("SELECT new com.ecommerce.dto.OrderItemView(i.order.id, i.id, i.quantity, i.priceAtPurchase, "
+           + "i.subtotal, p.id, p.name, p.description, p.price, p.stockQuantity, p.category, p.imageUrl, "
+           + "p.active) FROM OrderItem i JOIN i.product p WHERE i.order.id IN :orderIds ORDER BY i.id")
+   List<OrderItemView> findItemViewsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for OutboxEvent entity
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+   /**
+    * Find the IDs of the oldest pending events that are due for a (re)try
+    */
+   @Query("SELECT e.id FROM OutboxEvent e WHERE e.status = com.ecommerce.model.OutboxEvent.Status.PENDING "
+           + "AND e.nextAttemptAt <= :now ORDER BY e.id")
+   List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+   /**
+    * Claim the given events if they are still due, hiding them from other dispatchers until the lease ends.
+    * The condition is checked again on the locked rows, so of two dispatchers racing for an event only one
+    * claims it.
+    *
+    * @return number of events claimed
+    */
+   @Modifying
+   @Query("UPDATE OutboxEvent e SET e.claimToken = :token, e.nextAttemptAt = :leaseEnd "
+           + "WHERE e.id IN :ids AND e.status = com.ecommerce.model.OutboxEvent.Status.PENDING "
+           + "AND e.nextAttemptAt <= :now")
+   int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+             @Param("now") LocalDateTime now, @Param("leaseEnd") LocalDateTime leaseEnd);
+
+   List<OutboxEvent> findByClaimTokenOrderByIdAsc(String claimToken);
+
+   long countByStatus(OutboxEvent.Status status);
+}
@@ -1,17 +1,82 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.CategoryResponse;
+import com.ecommerce.dto.ProductResponse;
 import com.ecommerce.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-   List<Product> findByActiveTrue();
-   Page<Product> findByActiveTrue(Pageable pageable);
-   List<Product> findByCategory(String category);
-   List<Product> findByNameContainingIgnoreCase(String keyword);
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
+   List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+   @Query("SELECT p.id FROM Product p WHERE p.active = true")
+   Page<Long> findActiveIds(Pageable pageable);
+
+   @Query("SELECT p.id FROM Product p WHERE p.active = true")
+   List<Long> findActiveIds();
+
+   @Query("SELECT p.id FROM Product p WHERE p.active = true AND p.id > :afterId ORDER BY p.id")
+   List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+   @Query("SELECT p.id FROM Product p WHERE p.active = true ORDER BY p.price, p.id")
+   List<Long> findActiveIdsOrderByPrice(Pageable pageable);
+
+   @Query("SELECT p.id FROM Product p WHERE p.active = true "
+           + "AND (p.price > :price OR (p.price = :price AND p.id > :afterId)) ORDER BY p.price, p.id")
+   List<Long> findActiveIdsAfterPrice(@Param("price") BigDecimal price, @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+   long countByActiveTrue();
+
+   @Query("SELECT new com.ecommerce.dto.ProductResponse(p.id, p.name, p.description, p.price, "
+           + "p.stockQuantity, p.category, p.imageUrl, p.active) FROM Product p WHERE p.category = :category")
+   List<ProductResponse> findResponsesByCategory(@Param("category") String category);
+
+   /**
+    * All products in ID order, read with a JDBC fetch size instead of materializing the result
+    */
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+   @Query("SELECT new com.ecommerce.dto.ProductResponse(p.id, p.name, p.description, p.price, "
+           + "p.stockQuantity, p.category, p.imageUrl, p.active) FROM Product p ORDER BY p.id")
+   Stream<ProductResponse> streamAllResponses();
+
+   @Query("SELECT new com.ecommerce.dto.CategoryResponse(p.category, COUNT(p), "
+           + "SUM(CASE WHEN p.active = true THEN 1L ELSE 0L END)) "
+           + "FROM Product p GROUP BY p.category")
+   List<CategoryResponse> countProductsByCategory();
+
+   /**
+    * Decrease stock only if enough is available; returns the number of rows updated (0 or 1)
+    */
+   @Modifying
+   @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, "
+           + "p.version = p.version + 1, p.updatedAt = :now "
+           + "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+   int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+   /**
+    * Add a (possibly negative) delta to the stock without a read-modify-write
+    */
+   @Modifying
+   @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :delta, "
+           + "p.version = p.version + 1, p.updatedAt = :now WHERE p.id = :id")
+   int adjustStock(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+   @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id")
+   Optional<Integer> findStockQuantityById(@Param("id") Long id);
 }
\ No newline at end of file
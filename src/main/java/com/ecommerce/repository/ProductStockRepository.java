@@ -0,0 +1,16 @@
+package com.ecommerce.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Custom repository fragment for batched stock updates
+ */
+public interface ProductStockRepository {
+
+   /**
+    * Decrease stock for several products in one JDBC batch, each only if enough is available.
+    * Returns the number of rows updated per product, in the iteration order of the map.
+    */
+   int[] decrementStockBatch(Map<Long, Integer> quantities, LocalDateTime now);
+}
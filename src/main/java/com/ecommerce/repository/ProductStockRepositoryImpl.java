@@ -0,0 +1,40 @@
+package com.ecommerce.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link ProductStockRepository}
+ */
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+   private static final String DECREMENT_STOCK_SQL =
+           "UPDATE products SET stock_quantity = stock_quantity - ?, version = version + 1, updated_at = ? "
+                   + "WHERE id = ? AND stock_quantity >= ?";
+
+   private final JdbcTemplate jdbcTemplate;
+
+   @Override
+   public int[] decrementStockBatch(Map<Long, Integer> quantities, LocalDateTime now) {
+      Timestamp updatedAt = Timestamp.valueOf(now);
+      List<Object[]> args = new ArrayList<>(quantities.size());
+      quantities.forEach((id, quantity) -> args.add(new Object[]{quantity, updatedAt, id, quantity}));
+      int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, args);
+      for (int count : updated) {
+         // Oversell protection depends on per-row counts; MySQL's rewriteBatchedStatements reports them
+         // for UPDATE batches (sent as multi-statements) but not for rewritten INSERTs
+         if (count == Statement.SUCCESS_NO_INFO) {
+            throw new IllegalStateException("JDBC driver did not report update counts for the stock batch");
+         }
+      }
+      return updated;
+   }
+}
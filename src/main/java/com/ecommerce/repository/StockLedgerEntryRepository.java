@@ -0,0 +1,32 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.StockLedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for StockLedgerEntry entity
+ */
+@Repository
+public interface StockLedgerEntryRepository extends JpaRepository<StockLedgerEntry, Long> {
+
+   /**
+    * Find the oldest unapplied entries of a product
+    */
+   List<StockLedgerEntry> findByProductIdOrderByIdAsc(Long productId, Pageable pageable);
+
+   /**
+    * Find all unapplied entries of a product
+    */
+   List<StockLedgerEntry> findByProductId(Long productId);
+
+   /**
+    * Find all products that have unapplied entries
+    */
+   @Query("SELECT DISTINCT e.productId FROM StockLedgerEntry e")
+   List<Long> findPendingProductIds();
+}
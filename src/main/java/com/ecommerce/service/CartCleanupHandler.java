@@ -0,0 +1,32 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderPlacedEvent;
+import com.ecommerce.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes the checked-out items from the customer's cart after an order was placed.
+ * Only the ordered lines are removed, so items added after checkout stay in the cart.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartCleanupHandler implements OutboxEventHandler<OrderPlacedEvent> {
+
+   private final CartService cartService;
+
+   @Override
+   public OutboxEvent.EventType getEventType() {
+      return OutboxEvent.EventType.CART_CLEANUP;
+   }
+
+   @Override
+   public Class<OrderPlacedEvent> getPayloadType() {
+      return OrderPlacedEvent.class;
+   }
+
+   @Override
+   public void handle(OrderPlacedEvent event) {
+      cartService.removeItems(event.getCartItemIds());
+   }
+}
@@ -0,0 +1,93 @@
+package com.ecommerce.service;
+
+import com.ecommerce.repository.CartItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes abandoned carts from the cart_items table when carts are stored with JPA.
+ * A cart is abandoned when none of its items was updated within cart.store.ttl.
+ * Deletes run in small batches with a pause in between so they never stall checkout traffic.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "jpa")
+@Slf4j
+public class CartItemReaper {
+
+   private final CartItemRepository cartItemRepository;
+   private final TransactionTemplate transactionTemplate;
+   private final Duration ttl;
+   private final int batchSize;
+   private final int maxBatches;
+   private final long pauseMillis;
+
+   public CartItemReaper(CartItemRepository cartItemRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${cart.store.ttl:2h}") Duration ttl,
+                         @Value("${cart.reaper.batch-size:500}") int batchSize,
+                         @Value("${cart.reaper.max-batches:200}") int maxBatches,
+                         @Value("${cart.reaper.pause-ms:50}") long pauseMillis) {
+      this.cartItemRepository = cartItemRepository;
+      this.transactionTemplate = new TransactionTemplate(transactionManager);
+      this.ttl = ttl;
+      this.batchSize = batchSize;
+      this.maxBatches = maxBatches;
+      this.pauseMillis = pauseMillis;
+   }
+
+   /**
+    * Delete abandoned carts, at most max-batches batches of batch-size sessions per run
+    */
+   @Scheduled(fixedDelayString = "${cart.reaper.interval-ms:300000}", initialDelayString = "${cart.reaper.interval-ms:300000}")
+   public void reap() {
+      LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+      String afterSessionId = "";
+      int deleted = 0;
+
+      for (int batch = 0; batch < maxBatches; batch++) {
+         List<String> candidates = cartItemRepository.findStaleSessionIds(cutoff, afterSessionId, PageRequest.of(0, batchSize));
+         if (candidates.isEmpty()) {
+            break;
+         }
+         afterSessionId = candidates.get(candidates.size() - 1);
+
+         // Check and delete in one transaction, so a cart that becomes active meanwhile is kept whole
+         Integer removed = transactionTemplate.execute(status -> {
+            Set<String> abandoned = new HashSet<>(candidates);
+            cartItemRepository.findActiveSessionIdsForUpdate(candidates, cutoff).forEach(abandoned::remove);
+            return abandoned.isEmpty() ? 0 : cartItemRepository.deleteStaleBySessionIds(abandoned, cutoff);
+         });
+         deleted += removed != null ? removed : 0;
+
+         if (candidates.size() < batchSize || !pause()) {
+            break;
+         }
+      }
+
+      if (deleted > 0) {
+         log.info("Cart reaper removed {} abandoned cart items older than {}", deleted, cutoff);
+      }
+   }
+
+   private boolean pause() {
+      try {
+         Thread.sleep(pauseMillis);
+         return true;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return false;
+      }
+   }
+}
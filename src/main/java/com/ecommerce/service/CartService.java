@@ -1,56 +1,147 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CartDeltaResponse;
 import com.ecommerce.dto.CartResponse;
 import com.ecommerce.exception.InsufficientStockException;
 import com.ecommerce.exception.InvalidOperationException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.CartItem;
 import com.ecommerce.model.Product;
-import com.ecommerce.repository.CartItemRepository;
 import com.ecommerce.util.DtoMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
- * Service layer for shopping cart management
+ * Service layer for shopping cart management.
+ * Transactions are demarcated by the CartStore, so carts held in memory never touch the database.
  */
 @Service
+@Timed("ecommerce.service")
 @RequiredArgsConstructor
 public class CartService {
 
-   private final CartItemRepository cartItemRepository;
+   private final CartStore cartStore;
    private final ProductService productService;
    private final DtoMapper dtoMapper;
 
    /**
     * Get shopping cart for a session
     */
-   @Transactional(readOnly = true)
    public CartResponse getCart(String sessionId) {
       validateSessionId(sessionId);
-      List<CartItem> items = cartItemRepository.findBySessionId(sessionId);
+      List<CartItem> items = cartStore.findBySessionId(sessionId);
+      return toCartResponse(items, sessionId);
+   }
+
+   /**
+    * Map loaded cart items to the cart response, e.g. after their ETag was checked
+    */
+   public CartResponse toCartResponse(List<CartItem> items, String sessionId) {
       return dtoMapper.toCartResponse(items, sessionId);
    }
 
    /**
-    * Get cart items (internal use)
+    * Strong ETag of loaded cart items: a digest of the lines in order, with the version of each line's product,
+    * since price, name and stock changes alter the cart response as well
+    */
+   public String getCartETag(List<CartItem> items) {
+      StringBuilder version = new StringBuilder();
+      for (CartItem item : items) {
+         version.append(item.getId()).append(':').append(item.getQuantity()).append(':')
+                 .append(item.getProduct().getId()).append(':').append(item.getProduct().getVersion()).append(';');
+      }
+      return "\"" + DigestUtils.md5DigestAsHex(version.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+   }
+
+   /**
+    * Get cart items with their current product data (internal use)
     */
-   @Transactional(readOnly = true)
    public List<CartItem> getCartItems(String sessionId) {
       validateSessionId(sessionId);
-      return cartItemRepository.findBySessionId(sessionId);
+      return cartStore.findBySessionId(sessionId);
    }
 
    /**
     * Add item to cart
     */
-   @Transactional
    public CartResponse addToCart(String sessionId, Long productId, Integer quantity) {
+      List<CartItem> items = getCartItems(sessionId);
+      addItem(sessionId, items, productId, quantity);
+      return dtoMapper.toCartResponse(items, sessionId);
+   }
+
+   /**
+    * Add item to cart, returning only the changed line and the new totals
+    */
+   public CartDeltaResponse addToCartDelta(String sessionId, Long productId, Integer quantity) {
+      List<CartItem> items = getCartItems(sessionId);
+      CartItem changedItem = addItem(sessionId, items, productId, quantity);
+      return dtoMapper.toCartDeltaResponse(items, changedItem, null, sessionId);
+   }
+
+   /**
+    * Update cart item quantity
+    */
+   public CartResponse updateCartItem(String sessionId, Long cartItemId, Integer quantity) {
+      List<CartItem> items = getCartItems(sessionId);
+      updateItem(items, cartItemId, quantity);
+      return dtoMapper.toCartResponse(items, sessionId);
+   }
+
+   /**
+    * Update cart item quantity, returning only the changed line and the new totals
+    */
+   public CartDeltaResponse updateCartItemDelta(String sessionId, Long cartItemId, Integer quantity) {
+      List<CartItem> items = getCartItems(sessionId);
+      CartItem changedItem = updateItem(items, cartItemId, quantity);
+      return dtoMapper.toCartDeltaResponse(items, changedItem, null, sessionId);
+   }
+
+   /**
+    * Remove item from cart
+    */
+   public CartResponse removeFromCart(String sessionId, Long cartItemId) {
+      List<CartItem> items = getCartItems(sessionId);
+      removeItem(items, cartItemId);
+      return dtoMapper.toCartResponse(items, sessionId);
+   }
+
+   /**
+    * Remove item from cart, returning only the removed line ID and the new totals
+    */
+   public CartDeltaResponse removeFromCartDelta(String sessionId, Long cartItemId) {
+      List<CartItem> items = getCartItems(sessionId);
+      removeItem(items, cartItemId);
+      return dtoMapper.toCartDeltaResponse(items, null, cartItemId, sessionId);
+   }
+
+   /**
+    * Clear all items from cart
+    */
+   public void clearCart(String sessionId) {
       validateSessionId(sessionId);
+      cartStore.deleteBySessionId(sessionId);
+   }
 
+   /**
+    * Remove the given lines from whichever carts hold them; lines that are already gone are ignored
+    */
+   public void removeItems(List<Long> cartItemIds) {
+      for (Long cartItemId : cartItemIds) {
+         cartStore.deleteById(cartItemId);
+      }
+   }
+
+   /**
+    * Add a product to the loaded cart items and store the changed line.
+    * The list is updated in place so the response can be built without reloading the cart.
+    */
+   private CartItem addItem(String sessionId, List<CartItem> items, Long productId, Integer quantity) {
       Product product = productService.getProductEntityById(productId);
 
       if (!product.getActive()) {
@@ -61,44 +152,39 @@ public class CartService {
          throw new InsufficientStockException("Insufficient stock available for product: " + product.getName());
       }
 
-      cartItemRepository.findBySessionIdAndProductId(sessionId, productId)
-              .ifPresentOrElse(
-                      existingItem -> {
-                         int newQuantity = existingItem.getQuantity() + quantity;
-                         if (product.getStockQuantity() < newQuantity) {
-                            throw new InsufficientStockException("Insufficient stock available for product: " + product.getName());
-                         }
-                         existingItem.setQuantity(newQuantity);
-                         existingItem.calculateSubtotal();
-                         cartItemRepository.save(existingItem);
-                      },
-                      () -> {
-                         CartItem newItem = CartItem.builder()
-                                 .sessionId(sessionId)
-                                 .product(product)
-                                 .quantity(quantity)
-                                 .build();
-                         newItem.calculateSubtotal();
-                         cartItemRepository.save(newItem);
-                      }
-              );
-
-      return getCart(sessionId);
+      for (int i = 0; i < items.size(); i++) {
+         CartItem existingItem = items.get(i);
+         if (existingItem.getProduct().getId().equals(productId)) {
+            int newQuantity = existingItem.getQuantity() + quantity;
+            if (product.getStockQuantity() < newQuantity) {
+               throw new InsufficientStockException("Insufficient stock available for product: " + product.getName());
+            }
+            existingItem.setProduct(product);
+            existingItem.setQuantity(newQuantity);
+            existingItem.calculateSubtotal();
+            CartItem savedItem = cartStore.save(existingItem);
+            items.set(i, savedItem);
+            return savedItem;
+         }
+      }
+
+      CartItem newItem = CartItem.builder()
+              .sessionId(sessionId)
+              .product(product)
+              .quantity(quantity)
+              .build();
+      newItem.calculateSubtotal();
+      CartItem savedItem = cartStore.save(newItem);
+      items.add(savedItem);
+      return savedItem;
    }
 
    /**
-    * Update cart item quantity
+    * Change the quantity of a line in the loaded cart items and store it
     */
-   @Transactional
-   public CartResponse updateCartItem(String sessionId, Long cartItemId, Integer quantity) {
-      validateSessionId(sessionId);
-
-      CartItem cartItem = cartItemRepository.findById(cartItemId)
-              .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
-
-      if (!cartItem.getSessionId().equals(sessionId)) {
-         throw new InvalidOperationException("Cart item does not belong to this session");
-      }
+   private CartItem updateItem(List<CartItem> items, Long cartItemId, Integer quantity) {
+      int index = indexOf(items, cartItemId);
+      CartItem cartItem = items.get(index);
 
       if (cartItem.getProduct().getStockQuantity() < quantity) {
          throw new InsufficientStockException("Insufficient stock available for product: " + cartItem.getProduct().getName());
@@ -106,36 +192,34 @@ public class CartService {
 
       cartItem.setQuantity(quantity);
       cartItem.calculateSubtotal();
-      cartItemRepository.save(cartItem);
-
-      return getCart(sessionId);
+      CartItem savedItem = cartStore.save(cartItem);
+      items.set(index, savedItem);
+      return savedItem;
    }
 
    /**
-    * Remove item from cart
+    * Remove a line from the loaded cart items and from the store
     */
-   @Transactional
-   public CartResponse removeFromCart(String sessionId, Long cartItemId) {
-      validateSessionId(sessionId);
-
-      CartItem cartItem = cartItemRepository.findById(cartItemId)
-              .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
-
-      if (!cartItem.getSessionId().equals(sessionId)) {
-         throw new InvalidOperationException("Cart item does not belong to this session");
-      }
-
-      cartItemRepository.deleteById(cartItemId);
-      return getCart(sessionId);
+   private void removeItem(List<CartItem> items, Long cartItemId) {
+      int index = indexOf(items, cartItemId);
+      cartStore.deleteById(cartItemId);
+      items.remove(index);
    }
 
    /**
-    * Clear all items from cart
+    * Find a line in the loaded cart items. The store is only consulted again to report
+    * whether a missing item exists in another session.
     */
-   @Transactional
-   public void clearCart(String sessionId) {
-      validateSessionId(sessionId);
-      cartItemRepository.deleteBySessionId(sessionId);
+   private int indexOf(List<CartItem> items, Long cartItemId) {
+      for (int i = 0; i < items.size(); i++) {
+         if (items.get(i).getId().equals(cartItemId)) {
+            return i;
+         }
+      }
+      if (cartStore.findById(cartItemId).isPresent()) {
+         throw new InvalidOperationException("Cart item does not belong to this session");
+      }
+      throw new ResourceNotFoundException("Cart item not found");
    }
 
    /**
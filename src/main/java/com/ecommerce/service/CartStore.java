@@ -0,0 +1,43 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CartItem;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage for shopping cart items, keyed by session ID.
+ * Selected with the cart.store property: "memory" (default) or "jpa".
+ */
+public interface CartStore {
+
+   /**
+    * Find all cart items of a session, with their current product data
+    */
+   List<CartItem> findBySessionId(String sessionId);
+
+   /**
+    * Find the cart item of a product in a session
+    */
+   Optional<CartItem> findBySessionIdAndProductId(String sessionId, Long productId);
+
+   /**
+    * Find a cart item by its ID
+    */
+   Optional<CartItem> findById(Long cartItemId);
+
+   /**
+    * Insert or update a cart item
+    */
+   CartItem save(CartItem cartItem);
+
+   /**
+    * Delete a cart item by its ID
+    */
+   void deleteById(Long cartItemId);
+
+   /**
+    * Delete all cart items of a session
+    */
+   void deleteBySessionId(String sessionId);
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CategoryResponse;
+import com.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Materialized, sorted registry of product categories with per-category product counts.
+ * Loaded once with a grouped projection query and then maintained from the product write paths.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryRegistry {
+
+   private final ProductRepository productRepository;
+
+   private final ConcurrentSkipListMap<String, Counts> categories = new ConcurrentSkipListMap<>();
+
+   /**
+    * Load the category counts once the application (and DataLoader) has started
+    */
+   @EventListener(ApplicationReadyEvent.class)
+   public void rebuild() {
+      categories.clear();
+      for (CategoryResponse category : productRepository.countProductsByCategory()) {
+         categories.put(category.getName(), new Counts(category.getProductCount(), category.getActiveProductCount()));
+      }
+      log.info("Category registry loaded with {} categories", categories.size());
+   }
+
+   /**
+    * Record a product moving between categories and/or active states.
+    * A null old category means the product was just created.
+    */
+   public void move(String oldCategory, boolean oldActive, String newCategory, boolean newActive) {
+      if (Objects.equals(oldCategory, newCategory) && oldActive == newActive) {
+         return;
+      }
+      if (oldCategory != null) {
+         adjust(oldCategory, -1, oldActive ? -1 : 0);
+      }
+      if (newCategory != null) {
+         adjust(newCategory, 1, newActive ? 1 : 0);
+      }
+   }
+
+   /**
+    * All category names in sorted order
+    */
+   public List<String> getCategoryNames() {
+      return new ArrayList<>(categories.keySet());
+   }
+
+   /**
+    * All categories in sorted order with their product counts
+    */
+   public List<CategoryResponse> getCategories() {
+      List<CategoryResponse> result = new ArrayList<>(categories.size());
+      categories.forEach((name, counts) -> result.add(CategoryResponse.builder()
+              .name(name)
+              .productCount(counts.total())
+              .activeProductCount(counts.active())
+              .build()));
+      return result;
+   }
+
+   private void adjust(String category, long totalDelta, long activeDelta) {
+      categories.compute(category, (name, counts) -> {
+         long total = (counts != null ? counts.total() : 0) + totalDelta;
+         long active = (counts != null ? counts.active() : 0) + activeDelta;
+         return total > 0 ? new Counts(total, Math.max(active, 0)) : null;
+      });
+   }
+
+   private record Counts(long total, long active) {
+   }
+}
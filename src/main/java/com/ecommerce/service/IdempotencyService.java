@@ -0,0 +1,330 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.InvalidOperationException;
+import com.ecommerce.model.IdempotencyRecord;
+import com.ecommerce.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs requests at most once per idempotency key and replays the first response to retries.
+ *
+ * Completed responses are kept in a bounded in-memory LRU map, so a retry is answered without a
+ * database round trip, and in the idempotency_records table, which is written in the request's own
+ * transaction and survives restarts. Concurrent duplicates in this instance wait for the request
+ * already in flight; duplicates racing on another instance lose on the table's unique key, roll back
+ * and replay the winner's response. Requests without a key can be deduplicated by fingerprint
+ * within a shorter window.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+   public static final int MAX_KEY_LENGTH = 255;
+
+   private final IdempotencyRecordRepository recordRepository;
+   private final ObjectMapper objectMapper;
+   private final TransactionTemplate transactionTemplate;
+   private final Duration ttl;
+   private final Duration fingerprintWindow;
+
+   private final Map<String, Completed> completed;
+   private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+   private final LongAdder executed = new LongAdder();
+   private final LongAdder replayed = new LongAdder();
+   private final LongAdder coalesced = new LongAdder();
+
+   public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${idempotency.ttl:24h}") Duration ttl,
+                             @Value("${idempotency.fingerprint-window:60s}") Duration fingerprintWindow,
+                             @Value("${idempotency.max-entries:10000}") int maxEntries) {
+      this.recordRepository = recordRepository;
+      this.objectMapper = objectMapper;
+      this.transactionTemplate = new TransactionTemplate(transactionManager);
+      this.ttl = ttl;
+      this.fingerprintWindow = fingerprintWindow.compareTo(ttl) < 0 ? fingerprintWindow : ttl;
+      this.completed = new LinkedHashMap<>(16, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+            return size() > maxEntries;
+         }
+      };
+   }
+
+   /**
+    * Run the action once for the key, in a new transaction, and return its response.
+    * Retries with the same key and fingerprint get the first response back; a key reused for a
+    * different request is rejected. Failed actions are not recorded and may be retried.
+    *
+    * @param scope       kind of request, so keys of different endpoints never collide
+    * @param key         client or gateway supplied idempotency key
+    * @param fingerprint canonical form of the request the key stands for
+    */
+   public <T> T execute(String scope, String key, String fingerprint, Class<T> responseType, Supplier<T> action) {
+      if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+         throw new InvalidOperationException("Idempotency key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+      }
+      return execute(scope, key, digest(fingerprint), ttl, responseType, action);
+   }
+
+   /**
+    * Run the action once per distinct request within the fingerprint window, for clients that send
+    * no key. The fingerprint itself is the key, so identical requests within the window get the first
+    * response back and any other request runs normally. The window is capped at the TTL.
+    * The response is also recorded under the request fingerprint, replacing any earlier response, so
+    * {@link #findByFingerprint} still finds it once the state in the full fingerprint has changed.
+    *
+    * @param fingerprint        canonical form of the request and the state it acts on
+    * @param requestFingerprint canonical form of the request alone
+    */
+   public <T> T executeByFingerprint(String scope, String fingerprint, String requestFingerprint,
+                                     Class<T> responseType, Supplier<T> action) {
+      String digest = digest(fingerprint);
+      return execute(scope, digest, digest, digest(requestFingerprint), fingerprintWindow, responseType, action);
+   }
+
+   /**
+    * Latest response recorded under the request fingerprint by {@link #executeByFingerprint} within the window.
+    * Read from the table, since another instance may have replaced it since.
+    */
+   public <T> Optional<T> findByFingerprint(String scope, String requestFingerprint, Class<T> responseType) {
+      String digest = digest(requestFingerprint);
+      return recordRepository.findByScopeAndIdempotencyKey(scope, digest)
+              .filter(record -> isFresh(record, fingerprintWindow))
+              .map(record -> {
+                 replayed.increment();
+                 return replay(record.getFingerprint(), record.getResponse(), digest, responseType);
+              });
+   }
+
+   private <T> T execute(String scope, String key, String digest, Duration window,
+                         Class<T> responseType, Supplier<T> action) {
+      return execute(scope, key, digest, null, window, responseType, action);
+   }
+
+   private <T> T execute(String scope, String key, String digest, String aliasKey, Duration window,
+                         Class<T> responseType, Supplier<T> action) {
+      String cacheKey = scope + ':' + key;
+
+      Completed hit = getCompleted(cacheKey);
+      if (hit != null) {
+         replayed.increment();
+         return replay(hit.fingerprint, hit.response, digest, responseType);
+      }
+
+      InFlight call = new InFlight(digest, new CompletableFuture<>());
+      InFlight running = inFlight.putIfAbsent(cacheKey, call);
+      if (running != null) {
+         coalesced.increment();
+         checkFingerprint(running.fingerprint, digest);
+         return responseType.cast(await(running.future));
+      }
+
+      try {
+         Optional<IdempotencyRecord> stored = recordRepository.findByScopeAndIdempotencyKey(scope, key);
+         T response = stored.filter(record -> isFresh(record, window))
+                 .map(record -> replayStored(cacheKey, record, digest, window, responseType))
+                 .orElseGet(() -> run(scope, key, cacheKey, digest, aliasKey, window, stored.isPresent(),
+                         responseType, action));
+         call.future.complete(response);
+         return response;
+      } catch (RuntimeException e) {
+         call.future.completeExceptionally(e);
+         throw e;
+      } finally {
+         inFlight.remove(cacheKey, call);
+      }
+   }
+
+   /**
+    * Delete records and cached responses older than the TTL
+    */
+   @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+   public void purgeExpired() {
+      long now = System.currentTimeMillis();
+      synchronized (completed) {
+         completed.values().removeIf(entry -> entry.expiresAt < now);
+      }
+      Integer purged = transactionTemplate.execute(status ->
+              recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl)));
+      if (purged != null && purged > 0) {
+         log.debug("Purged {} expired idempotency records", purged);
+      }
+   }
+
+   /**
+    * Number of requests that ran their action
+    */
+   public long getExecuted() {
+      return executed.sum();
+   }
+
+   /**
+    * Number of retries answered with a stored response
+    */
+   public long getReplayed() {
+      return replayed.sum();
+   }
+
+   /**
+    * Number of duplicates that waited for the same request already in flight
+    */
+   public long getCoalesced() {
+      return coalesced.sum();
+   }
+
+   private static boolean isFresh(IdempotencyRecord record, Duration window) {
+      return record.getCreatedAt().isAfter(LocalDateTime.now().minus(window));
+   }
+
+   /**
+    * Replay a record loaded from the table and keep it in memory for the rest of its window
+    */
+   private <T> T replayStored(String cacheKey, IdempotencyRecord record, String digest, Duration window, Class<T> responseType) {
+      replayed.increment();
+      long expiresAt = record.getCreatedAt().plus(window).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+      putCompleted(cacheKey, new Completed(record.getFingerprint(), record.getResponse(), expiresAt));
+      return replay(record.getFingerprint(), record.getResponse(), digest, responseType);
+   }
+
+   private <T> T run(String scope, String key, String cacheKey, String digest, String aliasKey, Duration window,
+                     boolean replaceStale, Class<T> responseType, Supplier<T> action) {
+      String[] json = new String[1];
+      T response;
+      try {
+         response = transactionTemplate.execute(status -> {
+            if (replaceStale) {
+               recordRepository.deleteCreatedBefore(scope, key, LocalDateTime.now().minus(window));
+            }
+            T result = action.get();
+            json[0] = toJson(result);
+            recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                    .scope(scope)
+                    .idempotencyKey(key)
+                    .fingerprint(digest)
+                    .response(json[0])
+                    .build());
+            if (aliasKey != null) {
+               recordRepository.delete(scope, aliasKey);
+               recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                       .scope(scope)
+                       .idempotencyKey(aliasKey)
+                       .fingerprint(aliasKey)
+                       .response(json[0])
+                       .build());
+            }
+            return result;
+         });
+      } catch (DataIntegrityViolationException e) {
+         // Another instance committed the same key first; its changes stand and ours were rolled back
+         return recordRepository.findByScopeAndIdempotencyKey(scope, key)
+                 .filter(record -> isFresh(record, window))
+                 .map(record -> replayStored(cacheKey, record, digest, window, responseType))
+                 .orElseThrow(() -> e);
+      }
+      executed.increment();
+      putCompleted(cacheKey, new Completed(digest, json[0], System.currentTimeMillis() + window.toMillis()));
+      return response;
+   }
+
+   private <T> T replay(String storedFingerprint, String json, String digest, Class<T> responseType) {
+      checkFingerprint(storedFingerprint, digest);
+      try {
+         return objectMapper.readValue(json, responseType);
+      } catch (JsonProcessingException e) {
+         throw new IllegalStateException("Cannot read stored idempotent response", e);
+      }
+   }
+
+   private static void checkFingerprint(String storedFingerprint, String digest) {
+      if (!storedFingerprint.equals(digest)) {
+         throw new InvalidOperationException("Idempotency key has already been used for a different request");
+      }
+   }
+
+   private Completed getCompleted(String cacheKey) {
+      synchronized (completed) {
+         Completed entry = completed.get(cacheKey);
+         if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+            completed.remove(cacheKey);
+            return null;
+         }
+         return entry;
+      }
+   }
+
+   private void putCompleted(String cacheKey, Completed entry) {
+      synchronized (completed) {
+         completed.put(cacheKey, entry);
+      }
+   }
+
+   private String toJson(Object response) {
+      try {
+         return objectMapper.writeValueAsString(response);
+      } catch (JsonProcessingException e) {
+         throw new IllegalStateException("Cannot serialize idempotent response", e);
+      }
+   }
+
+   private static Object await(CompletableFuture<Object> future) {
+      try {
+         return future.join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         throw e;
+      }
+   }
+
+   /**
+    * SHA-256 of the request fingerprint, hex encoded
+    */
+   private static String digest(String fingerprint) {
+      try {
+         byte[] hash = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+         return HexFormat.of().formatHex(hash);
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   /**
+    * Stored response of a completed request; kept as JSON so every replay gets its own copy
+    */
+   private record Completed(String fingerprint, String response, long expiresAt) {
+   }
+
+   /**
+    * Request currently running for a key
+    */
+   private record InFlight(String fingerprint, CompletableFuture<Object> future) {
+   }
+}
@@ -0,0 +1,282 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.InvalidOperationException;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cart store that keeps carts in memory, keyed by session ID.
+ * Only product IDs are stored; product data is resolved through the product catalog cache on read.
+ * Idle carts expire after a TTL, and the number of carts is capped by evicting the least recently used.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryCartStore implements CartStore {
+
+   private final ProductService productService;
+   private final long ttlMillis;
+   private final int maxCarts;
+   private final int maxItemsPerCart;
+
+   private final Map<String, Cart> carts = new ConcurrentHashMap<>();
+   private final Map<Long, String> itemSessions = new ConcurrentHashMap<>();
+   private final AtomicLong ids = new AtomicLong();
+   private final ReentrantLock evictionLock = new ReentrantLock();
+
+   public InMemoryCartStore(ProductService productService,
+                            @Value("${cart.store.ttl:2h}") Duration ttl,
+                            @Value("${cart.store.max-carts:100000}") int maxCarts,
+                            @Value("${cart.store.max-items-per-cart:100}") int maxItemsPerCart) {
+      this.productService = productService;
+      this.ttlMillis = ttl.toMillis();
+      this.maxCarts = maxCarts;
+      this.maxItemsPerCart = maxItemsPerCart;
+   }
+
+   @Override
+   public List<CartItem> findBySessionId(String sessionId) {
+      Cart cart = carts.get(sessionId);
+      if (cart == null) {
+         return new ArrayList<>();
+      }
+
+      List<Line> lines;
+      synchronized (cart) {
+         cart.touch();
+         lines = new ArrayList<>(cart.lines.values());
+      }
+      if (lines.isEmpty()) {
+         return new ArrayList<>();
+      }
+
+      List<Long> productIds = lines.stream().map(Line::productId).collect(Collectors.toList());
+      Map<Long, Product> products = productService.getProductEntitiesByIds(productIds).stream()
+              .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+      List<CartItem> items = new ArrayList<>(lines.size());
+      for (Line line : lines) {
+         Product product = products.get(line.productId());
+         if (product != null) {
+            items.add(toCartItem(sessionId, line, product));
+         }
+      }
+      return items;
+   }
+
+   @Override
+   public Optional<CartItem> findBySessionIdAndProductId(String sessionId, Long productId) {
+      Cart cart = carts.get(sessionId);
+      if (cart == null) {
+         return Optional.empty();
+      }
+
+      Line line;
+      synchronized (cart) {
+         cart.touch();
+         line = cart.lines.get(productId);
+      }
+      return line == null
+              ? Optional.empty()
+              : Optional.of(toCartItem(sessionId, line, productService.getProductEntityById(productId)));
+   }
+
+   @Override
+   public Optional<CartItem> findById(Long cartItemId) {
+      String sessionId = itemSessions.get(cartItemId);
+      if (sessionId == null) {
+         return Optional.empty();
+      }
+      Cart cart = carts.get(sessionId);
+      if (cart == null) {
+         return Optional.empty();
+      }
+
+      Line line;
+      synchronized (cart) {
+         line = cart.findLine(cartItemId);
+      }
+      return line == null
+              ? Optional.empty()
+              : Optional.of(toCartItem(sessionId, line, productService.getProductEntityById(line.productId())));
+   }
+
+   @Override
+   public CartItem save(CartItem cartItem) {
+      String sessionId = cartItem.getSessionId();
+      Long productId = cartItem.getProduct().getId();
+      LocalDateTime now = LocalDateTime.now();
+
+      while (true) {
+         if (!carts.containsKey(sessionId)) {
+            evictIfFull();
+         }
+         Cart cart = carts.computeIfAbsent(sessionId, id -> new Cart());
+
+         synchronized (cart) {
+            if (carts.get(sessionId) != cart) {
+               // Evicted or cleared concurrently, retry with a fresh cart
+               continue;
+            }
+            cart.touch();
+            Line existing = cart.lines.get(productId);
+            if (existing == null && cart.lines.size() >= maxItemsPerCart) {
+               throw new InvalidOperationException("Cart cannot contain more than " + maxItemsPerCart + " items");
+            }
+
+            long id = existing != null ? existing.id() : cartItem.getId() != null ? cartItem.getId() : ids.incrementAndGet();
+            LocalDateTime createdAt = existing != null ? existing.createdAt() : now;
+            cart.lines.put(productId, new Line(id, productId, cartItem.getQuantity(), createdAt, now));
+            itemSessions.put(id, sessionId);
+
+            cartItem.setId(id);
+            cartItem.setCreatedAt(createdAt);
+            cartItem.setUpdatedAt(now);
+         }
+         cartItem.calculateSubtotal();
+         return cartItem;
+      }
+   }
+
+   @Override
+   public void deleteById(Long cartItemId) {
+      String sessionId = itemSessions.remove(cartItemId);
+      if (sessionId == null) {
+         return;
+      }
+      Cart cart = carts.get(sessionId);
+      if (cart != null) {
+         synchronized (cart) {
+            cart.touch();
+            cart.lines.values().removeIf(line -> line.id() == cartItemId);
+         }
+      }
+   }
+
+   @Override
+   public void deleteBySessionId(String sessionId) {
+      Cart cart = carts.remove(sessionId);
+      if (cart != null) {
+         forgetItems(cart);
+      }
+   }
+
+   /**
+    * Drop carts that have been idle for longer than the TTL
+    */
+   @Scheduled(fixedDelayString = "${cart.store.sweep-interval-ms:60000}")
+   public void evictExpired() {
+      long cutoff = System.currentTimeMillis() - ttlMillis;
+      int evicted = 0;
+      for (Map.Entry<String, Cart> entry : carts.entrySet()) {
+         if (entry.getValue().lastAccess < cutoff && carts.remove(entry.getKey(), entry.getValue())) {
+            forgetItems(entry.getValue());
+            evicted++;
+         }
+      }
+      if (evicted > 0) {
+         log.debug("Evicted {} expired carts, {} carts remain", evicted, carts.size());
+      }
+   }
+
+   /**
+    * Number of carts currently held in memory
+    */
+   public int size() {
+      return carts.size();
+   }
+
+   /**
+    * Make room for a new cart when the cap is reached: drop expired carts, then the least recently used tenth
+    */
+   private void evictIfFull() {
+      if (carts.size() < maxCarts || !evictionLock.tryLock()) {
+         return;
+      }
+      try {
+         evictExpired();
+         int excess = carts.size() - maxCarts + Math.max(1, maxCarts / 10);
+         if (excess <= 0) {
+            return;
+         }
+         carts.entrySet().stream()
+                 .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                 .limit(excess)
+                 .collect(Collectors.toList())
+                 .forEach(entry -> {
+                    if (carts.remove(entry.getKey(), entry.getValue())) {
+                       forgetItems(entry.getValue());
+                    }
+                 });
+         log.warn("Cart store reached its cap of {} carts; evicted {} least recently used carts", maxCarts, excess);
+      } finally {
+         evictionLock.unlock();
+      }
+   }
+
+   private void forgetItems(Cart cart) {
+      synchronized (cart) {
+         cart.lines.values().forEach(line -> itemSessions.remove(line.id()));
+      }
+   }
+
+   private static CartItem toCartItem(String sessionId, Line line, Product product) {
+      CartItem item = CartItem.builder()
+              .id(line.id())
+              .sessionId(sessionId)
+              .product(product)
+              .quantity(line.quantity())
+              .createdAt(line.createdAt())
+              .updatedAt(line.updatedAt())
+              .build();
+      item.calculateSubtotal();
+      return item;
+   }
+
+   /**
+    * One cart line; only the product ID is kept so price and stock are always current
+    */
+   private record Line(long id, long productId, int quantity, LocalDateTime createdAt, LocalDateTime updatedAt) {
+   }
+
+   /**
+    * Lines of one session keyed by product ID, guarded by the cart's monitor
+    */
+   private static final class Cart {
+
+      private final Map<Long, Line> lines = new LinkedHashMap<>();
+      private volatile long lastAccess = System.currentTimeMillis();
+
+      void touch() {
+         lastAccess = System.currentTimeMillis();
+      }
+
+      Line findLine(Long cartItemId) {
+         for (Line line : lines.values()) {
+            if (line.id() == cartItemId) {
+               return line;
+            }
+         }
+         return null;
+      }
+   }
+}
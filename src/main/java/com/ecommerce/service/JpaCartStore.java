@@ -0,0 +1,69 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CartItem;
+import com.ecommerce.repository.CartItemRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cart store backed by the cart_items table
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "jpa")
+@RequiredArgsConstructor
+@Transactional
+public class JpaCartStore implements CartStore {
+
+   private final CartItemRepository cartItemRepository;
+   private final EntityManager entityManager;
+
+   @Override
+   @Transactional(readOnly = true)
+   public List<CartItem> findBySessionId(String sessionId) {
+      return cartItemRepository.findBySessionIdWithProduct(sessionId);
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public Optional<CartItem> findBySessionIdAndProductId(String sessionId, Long productId) {
+      return cartItemRepository.findBySessionIdAndProductId(sessionId, productId);
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public Optional<CartItem> findById(Long cartItemId) {
+      return cartItemRepository.findById(cartItemId);
+   }
+
+   /**
+    * Persist new items and flush managed ones; update detached items with a single statement instead of a merge
+    */
+   @Override
+   public CartItem save(CartItem cartItem) {
+      if (cartItem.getId() == null || entityManager.contains(cartItem)) {
+         return cartItemRepository.save(cartItem);
+      }
+      LocalDateTime now = LocalDateTime.now();
+      cartItem.calculateSubtotal();
+      cartItemRepository.updateQuantity(cartItem.getId(), cartItem.getQuantity(), cartItem.getSubtotal(), now);
+      cartItem.setUpdatedAt(now);
+      return cartItem;
+   }
+
+   @Override
+   public void deleteById(Long cartItemId) {
+      cartItemRepository.deleteById(cartItemId);
+   }
+
+   @Override
+   public void deleteBySessionId(String sessionId) {
+      cartItemRepository.deleteBySessionId(sessionId);
+   }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderPlacedEvent;
+import com.ecommerce.model.OutboxEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory sales counters, updated from the outbox after each placed order.
+ * Counters start from zero on every restart; they and the size of each checked-out cart are
+ * also published as metrics.
+ */
+@Component
+public class OrderAnalytics implements OutboxEventHandler<OrderPlacedEvent> {
+
+   private final LongAdder ordersPlaced = new LongAdder();
+   private final LongAdder unitsSold = new LongAdder();
+   private final LongAdder revenueCents = new LongAdder();
+   private final DistributionSummary cartLines;
+   private final DistributionSummary cartUnits;
+
+   public OrderAnalytics(MeterRegistry meterRegistry) {
+      FunctionCounter.builder("ecommerce.orders.placed", ordersPlaced, LongAdder::sum)
+              .description("Orders placed")
+              .register(meterRegistry);
+      FunctionCounter.builder("ecommerce.orders.units", unitsSold, LongAdder::sum)
+              .description("Units sold")
+              .register(meterRegistry);
+      FunctionCounter.builder("ecommerce.orders.revenue", revenueCents, cents -> cents.sum() / 100.0)
+              .description("Revenue of placed orders")
+              .register(meterRegistry);
+      this.cartLines = DistributionSummary.builder("ecommerce.checkout.cart.lines")
+              .description("Distinct products in a checked-out cart")
+              .register(meterRegistry);
+      this.cartUnits = DistributionSummary.builder("ecommerce.checkout.cart.units")
+              .description("Units in a checked-out cart")
+              .register(meterRegistry);
+   }
+
+   @Override
+   public OutboxEvent.EventType getEventType() {
+      return OutboxEvent.EventType.ORDER_ANALYTICS;
+   }
+
+   @Override
+   public Class<OrderPlacedEvent> getPayloadType() {
+      return OrderPlacedEvent.class;
+   }
+
+   @Override
+   public void handle(OrderPlacedEvent event) {
+      // Read the whole event before counting, so an event that fails is retried without being counted twice
+      int units = event.getUnits();
+      long cents = event.getTotalAmount().movePointRight(2).longValue();
+      int lines = event.getCartItemIds().size();
+
+      ordersPlaced.increment();
+      unitsSold.add(units);
+      revenueCents.add(cents);
+      cartLines.record(lines);
+      cartUnits.record(units);
+   }
+
+   public long getOrdersPlaced() {
+      return ordersPlaced.sum();
+   }
+
+   public long getUnitsSold() {
+      return unitsSold.sum();
+   }
+
+   public BigDecimal getRevenue() {
+      return BigDecimal.valueOf(revenueCents.sum(), 2);
+   }
+}
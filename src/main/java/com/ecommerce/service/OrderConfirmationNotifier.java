@@ -0,0 +1,32 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderPlacedEvent;
+import com.ecommerce.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the order confirmation to the customer. There is no mail gateway yet, so the
+ * confirmation is logged; a real sender only needs to replace the body of handle().
+ */
+@Component
+@Slf4j
+public class OrderConfirmationNotifier implements OutboxEventHandler<OrderPlacedEvent> {
+
+   @Override
+   public OutboxEvent.EventType getEventType() {
+      return OutboxEvent.EventType.ORDER_CONFIRMATION;
+   }
+
+   @Override
+   public Class<OrderPlacedEvent> getPayloadType() {
+      return OrderPlacedEvent.class;
+   }
+
+   @Override
+   public void handle(OrderPlacedEvent event) {
+      // Customer details stay out of the logs
+      log.info("Order confirmation for {} ({} units, total {}) sent", event.getOrderNumber(),
+              event.getUnits(), event.getTotalAmount());
+   }
+}
@@ -1,7 +1,10 @@
 package com.ecommerce.service;
 
 import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.CursorPageResponse;
+import com.ecommerce.dto.OrderItemView;
 import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.dto.OrderView;
 import com.ecommerce.dto.PaymentRequest;
 import com.ecommerce.exception.InsufficientStockException;
 import com.ecommerce.exception.InvalidOperationException;
@@ -9,34 +12,83 @@ import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.*;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.util.DtoMapper;
+import com.ecommerce.util.KeysetCursor;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service layer for order management
  */
 @Service
+@Timed("ecommerce.service")
 @RequiredArgsConstructor
 public class OrderService {
 
+   private static final int EXPORT_CHUNK_SIZE = 500;
+   private static final String PAYMENT_SCOPE = "payment";
+   private static final String ORDER_SCOPE = "order";
+
    private final OrderRepository orderRepository;
    private final CartService cartService;
    private final ProductService productService;
+   private final OutboxService outboxService;
+   private final IdempotencyService idempotencyService;
    private final DtoMapper dtoMapper;
 
    /**
-    * Create a new order from cart items
+    * Create a new order from cart items at most once per idempotency key.
+    * Without a key, an identical request for the same session and the same cart contents within
+    * idempotency.fingerprint-window gets the first order back, so client retries never order twice,
+    * while a changed cart is ordered again. Once the outbox has removed the ordered lines, a retry finds
+    * the cart empty and gets the session's latest order of the window back instead.
     */
-   @Transactional
-   public OrderResponse createOrder(CreateOrderRequest request) {
+   public OrderResponse createOrder(CreateOrderRequest request, String idempotencyKey) {
+      String fingerprint = request.getSessionId() + "|" + request.getCustomerName() + "|" + request.getCustomerEmail()
+              + "|" + request.getPhoneNumber() + "|" + request.getShippingAddress() + "|" + request.getDeliveryInstructions();
+      if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+         return idempotencyService.execute(ORDER_SCOPE, idempotencyKey, fingerprint, OrderResponse.class,
+                 () -> placeOrder(request, cartService.getCartItems(request.getSessionId())));
+      }
+      // The order is placed from the cart that was fingerprinted, even if the cart changes meanwhile
       List<CartItem> cartItems = cartService.getCartItems(request.getSessionId());
+      if (cartItems.isEmpty()) {
+         Optional<OrderResponse> placed = idempotencyService.findByFingerprint(ORDER_SCOPE, fingerprint, OrderResponse.class);
+         if (placed.isPresent()) {
+            return placed.get();
+         }
+      }
+      StringBuilder cartFingerprint = new StringBuilder(fingerprint).append("|cart");
+      for (CartItem cartItem : cartItems) {
+         // Product versions are left out: placing the order itself bumps them through the stock update
+         cartFingerprint.append('|').append(cartItem.getId()).append(':').append(cartItem.getProduct().getId())
+                 .append(':').append(cartItem.getQuantity());
+      }
+      return idempotencyService.executeByFingerprint(ORDER_SCOPE, cartFingerprint.toString(), fingerprint,
+              OrderResponse.class, () -> placeOrder(request, cartItems));
+   }
 
+   /**
+    * Place an order from the given items of the session's cart; runs in the idempotency service's transaction
+    */
+   private OrderResponse placeOrder(CreateOrderRequest request, List<CartItem> cartItems) {
       if (cartItems.isEmpty()) {
          throw new InvalidOperationException("Cannot create order from empty cart");
       }
@@ -49,6 +101,7 @@ public class OrderService {
               .paymentStatus(Order.PaymentStatus.PENDING)
               .build();
 
+      Map<Long, Integer> quantities = new LinkedHashMap<>();
       for (CartItem cartItem : cartItems) {
          Product product = cartItem.getProduct();
 
@@ -68,25 +121,83 @@ public class OrderService {
                  .build();
 
          order.addOrderItem(orderItem);
-
-         productService.updateStock(product.getId(), cartItem.getQuantity());
+         quantities.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
       }
 
+      productService.reserveStock(quantities);
+
       order.calculateTotalAmount();
       Order savedOrder = orderRepository.save(order);
 
-      cartService.clearCart(request.getSessionId());
+      // Cart cleanup, confirmation and analytics run after commit, off the request path
+      outboxService.publish(savedOrder.getId(),
+              dtoMapper.toOrderPlacedEvent(savedOrder, request.getSessionId(), cartItems),
+              OutboxEvent.EventType.CART_CLEANUP,
+              OutboxEvent.EventType.ORDER_CONFIRMATION,
+              OutboxEvent.EventType.ORDER_ANALYTICS);
 
       return dtoMapper.toOrderResponse(savedOrder);
    }
 
    /**
-    * Get all orders with pagination
+    * Get all orders with pagination.
+    * Orders and their items are selected straight into projections, without loading entities.
     */
    @Transactional(readOnly = true)
    public Page<OrderResponse> getAllOrders(Pageable pageable) {
-      Page<Order> orders = orderRepository.findAll(pageable);
-      return orders.map(dtoMapper::toOrderResponse);
+      if (pageable.getSort().isUnsorted()) {
+         pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+      }
+      Page<OrderView> orders = orderRepository.findViews(pageable);
+      return new PageImpl<>(withItems(orders.getContent()), pageable, orders.getTotalElements());
+   }
+
+   /**
+    * Get orders with keyset pagination, sorted by ID (default) or by creation time.
+    * Every page costs the same regardless of depth; the total count is only computed when requested.
+    */
+   @Transactional(readOnly = true)
+   public CursorPageResponse<OrderResponse> scrollOrders(String cursor, String sort, int size, boolean includeTotal) {
+      size = KeysetCursor.pageSize(size);
+      KeysetCursor after = KeysetCursor.decode(cursor, sort);
+      String key = after != null ? after.getSort() : sort != null ? sort : "id";
+      Pageable limit = KeysetCursor.limit(size);
+
+      List<OrderView> orders = switch (key) {
+         case "id" -> orderRepository.findViewsAfter(after != null ? after.getId() : 0L, limit);
+         case "createdAt" -> after != null
+                 ? orderRepository.findViewsAfterCreatedAt(after.dateTimeValue(), after.getId(), limit)
+                 : orderRepository.findViewsOrderByCreatedAt(limit);
+         default -> throw new InvalidOperationException("Orders cannot be sorted by: " + key);
+      };
+
+      KeysetCursor next = null;
+      if (orders.size() > size) {
+         orders = orders.subList(0, size);
+         OrderView last = orders.get(size - 1);
+         next = new KeysetCursor(key, "createdAt".equals(key) ? last.getCreatedAt().toString() : null, last.getId());
+      }
+      Long total = includeTotal ? orderRepository.count() : null;
+      return dtoMapper.toCursorPageResponse(withItems(orders), next, total);
+   }
+
+   /**
+    * Stream every order to the consumer in ID order. Orders are read through a fetch-size cursor and
+    * their items are loaded one chunk of orders at a time, so memory stays flat however many orders exist.
+    */
+   @Transactional(readOnly = true)
+   public void exportOrders(Consumer<OrderResponse> consumer) {
+      try (Stream<OrderView> orders = orderRepository.streamAllViews()) {
+         List<OrderView> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+         Iterator<OrderView> iterator = orders.iterator();
+         while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == EXPORT_CHUNK_SIZE || !iterator.hasNext()) {
+               withItems(chunk).forEach(consumer);
+               chunk.clear();
+            }
+         }
+      }
    }
 
    /**
@@ -94,7 +205,7 @@ public class OrderService {
     */
    @Transactional(readOnly = true)
    public Order getOrderEntityById(Long id) {
-      return orderRepository.findById(id)
+      return orderRepository.findWithItemsById(id)
               .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
    }
 
@@ -103,8 +214,9 @@ public class OrderService {
     */
    @Transactional(readOnly = true)
    public OrderResponse getOrderById(Long id) {
-      Order order = getOrderEntityById(id);
-      return dtoMapper.toOrderResponse(order);
+      OrderView order = orderRepository.findViewById(id)
+              .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+      return withItems(List.of(order)).get(0);
    }
 
    /**
@@ -112,9 +224,9 @@ public class OrderService {
     */
    @Transactional(readOnly = true)
    public OrderResponse getOrderByOrderNumber(String orderNumber) {
-      Order order = orderRepository.findByOrderNumber(orderNumber)
+      OrderView order = orderRepository.findViewByOrderNumber(orderNumber)
               .orElseThrow(() -> new ResourceNotFoundException("Order not found with number: " + orderNumber));
-      return dtoMapper.toOrderResponse(order);
+      return withItems(List.of(order)).get(0);
    }
 
    /**
@@ -122,8 +234,7 @@ public class OrderService {
     */
    @Transactional(readOnly = true)
    public List<OrderResponse> getOrdersByCustomerEmail(String email) {
-      List<Order> orders = orderRepository.findByCustomerEmail(email);
-      return dtoMapper.toOrderResponseList(orders);
+      return withItems(orderRepository.findViewsByCustomerEmail(email));
    }
 
    /**
@@ -147,10 +258,22 @@ public class OrderService {
    }
 
    /**
-    * Process payment for an order
+    * Process payment for an order at most once per idempotency key.
+    * The key is the Idempotency-Key header if given, else the gateway transaction ID;
+    * retried callbacks get the first response back without loading the order again.
     */
-   @Transactional
-   public OrderResponse processPayment(Long orderId, PaymentRequest request) {
+   public OrderResponse processPayment(Long orderId, PaymentRequest request, String idempotencyKey) {
+      String key = idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : request.getTransactionId();
+      String fingerprint = orderId + "|" + request.getTransactionId() + "|" + request.getPaymentSuccessful()
+              + "|" + request.getPaymentMethod() + "|" + request.getPaymentGateway();
+      return idempotencyService.execute(PAYMENT_SCOPE, key, fingerprint, OrderResponse.class,
+              () -> applyPayment(orderId, request));
+   }
+
+   /**
+    * Apply a payment result to an order; runs in the idempotency service's transaction
+    */
+   private OrderResponse applyPayment(Long orderId, PaymentRequest request) {
       Order order = getOrderEntityById(orderId);
 
       if (order.getPaymentStatus() == Order.PaymentStatus.COMPLETED) {
@@ -194,8 +317,7 @@ public class OrderService {
       // Restore stock if payment was completed
       if (order.getPaymentStatus() == Order.PaymentStatus.COMPLETED) {
          for (OrderItem orderItem : order.getOrderItems()) {
-            Product product = orderItem.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + orderItem.getQuantity());
+            productService.restoreStock(orderItem.getProduct().getId(), orderItem.getQuantity());
          }
       }
 
@@ -208,4 +330,19 @@ public class OrderService {
       Order updatedOrder = orderRepository.save(order);
       return dtoMapper.toOrderResponse(updatedOrder);
    }
-}
\ No newline at end of file
+
+   /**
+    * Load the items of the given orders in one query and build the responses, keeping the order of the list
+    */
+   private List<OrderResponse> withItems(List<OrderView> orders) {
+      if (orders.isEmpty()) {
+         return List.of();
+      }
+      List<Long> orderIds = orders.stream().map(OrderView::getId).collect(Collectors.toList());
+      Map<Long, List<OrderItemView>> items = orderRepository.findItemViewsByOrderIdIn(orderIds).stream()
+              .collect(Collectors.groupingBy(OrderItemView::getOrderId));
+      return orders.stream()
+              .map(order -> dtoMapper.toOrderResponse(order, items.getOrDefault(order.getId(), List.of())))
+              .collect(Collectors.toList());
+   }
+}
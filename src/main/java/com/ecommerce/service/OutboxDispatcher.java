@@ -0,0 +1,171 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Processes outbox events in batches on a scheduler thread, off the request path.
+ * Handled events are deleted; failed events are retried with exponential backoff and
+ * parked as FAILED after the maximum number of attempts.
+ *
+ * Each batch is claimed first, so dispatchers on several instances never handle the same event
+ * concurrently; an instance that dies mid-batch leaves its events to others once the lease ends.
+ * Events handled but not yet deleted are remembered by ID, so when the delete fails they are
+ * deleted on the next run without running their handlers again.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+   private final OutboxEventRepository outboxEventRepository;
+   private final ObjectMapper objectMapper;
+   private final TransactionTemplate transactionTemplate;
+   private final Map<OutboxEvent.EventType, OutboxEventHandler<?>> handlers = new EnumMap<>(OutboxEvent.EventType.class);
+   private final int batchSize;
+   private final int maxAttempts;
+   private final long initialBackoffMillis;
+   private final long maxBackoffMillis;
+   private final long leaseMillis;
+   private final Set<Long> handledEventIds = ConcurrentHashMap.newKeySet();
+
+   public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           List<OutboxEventHandler<?>> handlers,
+                           @Value("${outbox.batch-size:100}") int batchSize,
+                           @Value("${outbox.max-attempts:10}") int maxAttempts,
+                           @Value("${outbox.backoff.initial-ms:1000}") long initialBackoffMillis,
+                           @Value("${outbox.backoff.max-ms:300000}") long maxBackoffMillis,
+                           @Value("${outbox.lease-ms:60000}") long leaseMillis) {
+      this.outboxEventRepository = outboxEventRepository;
+      this.objectMapper = objectMapper;
+      this.transactionTemplate = new TransactionTemplate(transactionManager);
+      this.batchSize = batchSize;
+      this.maxAttempts = maxAttempts;
+      this.initialBackoffMillis = initialBackoffMillis;
+      this.maxBackoffMillis = maxBackoffMillis;
+      this.leaseMillis = leaseMillis;
+      for (OutboxEventHandler<?> handler : handlers) {
+         if (this.handlers.put(handler.getEventType(), handler) != null) {
+            throw new IllegalStateException("More than one outbox handler for " + handler.getEventType());
+         }
+      }
+   }
+
+   /**
+    * Process due events until none are left or a batch was not full
+    */
+   @Scheduled(fixedDelayString = "${outbox.dispatch-interval-ms:200}")
+   public void dispatch() {
+      int processed;
+      do {
+         processed = dispatchBatch();
+      } while (processed == batchSize);
+   }
+
+   /**
+    * Claim one batch of due events, handle them and record the outcome in one transaction
+    *
+    * @return number of events in the batch
+    */
+   private int dispatchBatch() {
+      List<OutboxEvent> events = claimBatch();
+      if (events.isEmpty()) {
+         return 0;
+      }
+
+      List<OutboxEvent> handled = new ArrayList<>(events.size());
+      List<OutboxEvent> failed = new ArrayList<>();
+      for (OutboxEvent event : events) {
+         if (handledEventIds.contains(event.getId())) {
+            handled.add(event);
+            continue;
+         }
+         try {
+            handle(event);
+            handledEventIds.add(event.getId());
+            handled.add(event);
+         } catch (RuntimeException e) {
+            reschedule(event, e);
+            failed.add(event);
+         }
+      }
+
+      transactionTemplate.executeWithoutResult(status -> {
+         outboxEventRepository.deleteAllInBatch(handled);
+         outboxEventRepository.saveAll(failed);
+      });
+      handled.forEach(event -> handledEventIds.remove(event.getId()));
+      return events.size();
+   }
+
+   /**
+    * Claim up to a batch of due events for this run. Events another dispatcher claimed in the
+    * meantime are skipped; the batch may then come back short.
+    */
+   private List<OutboxEvent> claimBatch() {
+      return transactionTemplate.execute(status -> {
+         LocalDateTime now = LocalDateTime.now();
+         List<Long> ids = outboxEventRepository.findDueIds(now, PageRequest.of(0, batchSize));
+         if (ids.isEmpty()) {
+            return List.of();
+         }
+         String token = UUID.randomUUID().toString();
+         outboxEventRepository.claim(ids, token, now, now.plusNanos(leaseMillis * 1_000_000));
+         return outboxEventRepository.findByClaimTokenOrderByIdAsc(token);
+      });
+   }
+
+   private <T> void handle(OutboxEvent event) {
+      @SuppressWarnings("unchecked")
+      OutboxEventHandler<T> handler = (OutboxEventHandler<T>) handlers.get(event.getEventType());
+      if (handler == null) {
+         throw new IllegalStateException("No outbox handler for " + event.getEventType());
+      }
+      T payload;
+      try {
+         payload = objectMapper.readValue(event.getPayload(), handler.getPayloadType());
+      } catch (Exception e) {
+         throw new IllegalStateException("Unreadable outbox payload: " + e.getMessage(), e);
+      }
+      handler.handle(payload);
+   }
+
+   private void reschedule(OutboxEvent event, RuntimeException e) {
+      event.setClaimToken(null);
+      int attempts = event.getAttempts() + 1;
+      event.setAttempts(attempts);
+      event.setLastError(abbreviate(e.toString()));
+      if (attempts >= maxAttempts) {
+         event.setStatus(OutboxEvent.Status.FAILED);
+         log.error("Outbox event {} ({}) failed {} times, giving up: {}",
+                 event.getId(), event.getEventType(), attempts, e.getMessage(), e);
+         return;
+      }
+      long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 30));
+      event.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000));
+      log.warn("Outbox event {} ({}) failed, retry {} in {} ms: {}",
+              event.getId(), event.getEventType(), attempts, backoff, e.getMessage());
+   }
+
+   private static String abbreviate(String message) {
+      return message.length() <= 1000 ? message : message.substring(0, 1000);
+   }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.OutboxEvent;
+
+/**
+ * Handles one type of outbox event; throwing schedules a retry with backoff.
+ * The dispatcher runs a handler once per event ID, and a handler that throws must not have applied any
+ * of its effects. An event is only delivered again if its dispatcher crashes between handling and
+ * deleting it, or holds it past the claim lease.
+ */
+public interface OutboxEventHandler<T> {
+
+   /**
+    * Event type this handler processes
+    */
+   OutboxEvent.EventType getEventType();
+
+   /**
+    * Class the JSON payload is read into
+    */
+   Class<T> getPayloadType();
+
+   void handle(T payload);
+}
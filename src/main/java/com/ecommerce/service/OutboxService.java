@@ -0,0 +1,47 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes outbox events as part of the caller's transaction, so a side effect is recorded
+ * if and only if the business change commits
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+   private final OutboxEventRepository outboxEventRepository;
+   private final ObjectMapper objectMapper;
+
+   /**
+    * Record one event per type with the same payload
+    */
+   @Transactional(propagation = Propagation.MANDATORY)
+   public void publish(Long aggregateId, Object payload, OutboxEvent.EventType... eventTypes) {
+      String json;
+      try {
+         json = objectMapper.writeValueAsString(payload);
+      } catch (JsonProcessingException e) {
+         throw new IllegalArgumentException("Cannot serialize outbox payload", e);
+      }
+
+      LocalDateTime now = LocalDateTime.now();
+      for (OutboxEvent.EventType eventType : eventTypes) {
+         outboxEventRepository.save(OutboxEvent.builder()
+                 .eventType(eventType)
+                 .aggregateId(aggregateId)
+                 .payload(json)
+                 .nextAttemptAt(now)
+                 .build());
+      }
+   }
+}
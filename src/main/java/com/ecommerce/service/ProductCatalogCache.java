@@ -0,0 +1,232 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of product snapshots keyed by product id.
+ * Entries are versioned with Product.version, and invalidations leave a stamped tombstone,
+ * so that a reader racing with a committed write can never put an older snapshot back into the cache.
+ * Stamps are kept per product, so loads are only affected by invalidations of the product they load.
+ * Tombstones count towards the LRU bound like snapshots do; a segment remembers the newest stamp
+ * it evicted and uses it for every product it no longer holds.
+ */
+@Component
+@Slf4j
+public class ProductCatalogCache {
+
+   private static final int SEGMENTS = 16;
+
+   private final Segment[] segments = new Segment[SEGMENTS];
+   private final int maxSize;
+   private final AtomicLong clock = new AtomicLong();
+
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+
+   public ProductCatalogCache(@Value("${catalog.cache.max-size:10000}") int maxSize) {
+      this.maxSize = maxSize;
+      int perSegment = Math.max(1, maxSize / SEGMENTS);
+      for (int i = 0; i < SEGMENTS; i++) {
+         segments[i] = new Segment(perSegment);
+      }
+      log.info("Product catalog cache initialised with max size {}", maxSize);
+   }
+
+   /**
+    * Get a copy of the cached product, if present
+    */
+   public Optional<Product> get(Long id) {
+      Entry entry = segmentFor(id).get(id);
+      if (entry == null || entry.product == null) {
+         misses.increment();
+         return Optional.empty();
+      }
+      hits.increment();
+      return Optional.of(copyOf(entry.product));
+   }
+
+   /**
+    * Ticket to take before loading a product from the database, to be passed to {@link #put}.
+    * It changes whenever the product is invalidated, so it also identifies the loads that may share a result.
+    */
+   public long ticket(Long id) {
+      return segmentFor(id).stamp(id);
+   }
+
+   /**
+    * Cache a snapshot of a product loaded from the database.
+    * The snapshot is ignored if a newer version has already been seen, or if the product
+    * was invalidated (or its entry evicted) after the ticket was taken.
+    */
+   public void put(Product product, long ticket) {
+      if (product == null || product.getId() == null) {
+         return;
+      }
+      segmentFor(product.getId()).put(product.getId(), versionOf(product), copyOf(product), ticket);
+   }
+
+   /**
+    * Drop the cached snapshot of a product after a write committed.
+    * The committed version may be null when the write was a bulk update that did not load the product.
+    */
+   public void invalidate(Long id, Long committedVersion) {
+      if (id == null) {
+         return;
+      }
+      segmentFor(id).invalidate(id, committedVersion, clock.incrementAndGet());
+   }
+
+   /**
+    * Remove every entry from the cache
+    */
+   public void clear() {
+      for (Segment segment : segments) {
+         segment.clear();
+      }
+   }
+
+   /**
+    * Snapshot of the cache counters
+    */
+   public Stats stats() {
+      int size = 0;
+      for (Segment segment : segments) {
+         size += segment.size();
+      }
+      return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, maxSize);
+   }
+
+   private Segment segmentFor(Long id) {
+      return segments[Math.floorMod(Long.hashCode(id), SEGMENTS)];
+   }
+
+   private static long versionOf(Product product) {
+      return product.getVersion() != null ? product.getVersion() : 0L;
+   }
+
+   /**
+    * Detached copy so callers can never mutate the shared snapshot
+    */
+   static Product copyOf(Product product) {
+      return Product.builder()
+              .id(product.getId())
+              .version(product.getVersion())
+              .name(product.getName())
+              .description(product.getDescription())
+              .price(product.getPrice())
+              .stockQuantity(product.getStockQuantity())
+              .category(product.getCategory())
+              .imageUrl(product.getImageUrl())
+              .active(product.getActive())
+              .createdAt(product.getCreatedAt())
+              .updatedAt(product.getUpdatedAt())
+              .build();
+   }
+
+   /**
+    * Cached snapshot, or a tombstone (product == null) recording the minimum acceptable version.
+    * Both carry the clock value at which the product was last invalidated.
+    */
+   private record Entry(long version, Product product, long stamp) {
+   }
+
+   /**
+    * Access-ordered LRU segment guarded by its own lock
+    */
+   private final class Segment {
+
+      private final LinkedHashMap<Long, Entry> map;
+      private long evictedStamp;
+
+      Segment(int capacity) {
+         this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+               if (size() > capacity) {
+                  evictions.increment();
+                  evictedStamp = Math.max(evictedStamp, eldest.getValue().stamp);
+                  return true;
+               }
+               return false;
+            }
+         };
+      }
+
+      synchronized Entry get(Long id) {
+         return map.get(id);
+      }
+
+      synchronized long stamp(Long id) {
+         Entry current = map.get(id);
+         return current != null ? current.stamp : evictedStamp;
+      }
+
+      synchronized void put(Long id, long version, Product product, long ticket) {
+         Entry current = map.get(id);
+         long stamp = current != null ? current.stamp : evictedStamp;
+         if (stamp != ticket) {
+            return;
+         }
+         if (current != null && current.version > version) {
+            return;
+         }
+         map.put(id, new Entry(version, product, stamp));
+      }
+
+      synchronized void invalidate(Long id, Long committedVersion, long stamp) {
+         Entry current = map.get(id);
+         if (current != null && current.product != null && committedVersion != null
+                 && current.version >= committedVersion) {
+            return;
+         }
+         long version = committedVersion != null ? committedVersion : current != null ? current.version : 0L;
+         map.put(id, new Entry(version, null, stamp));
+      }
+
+      synchronized void clear() {
+         // Loads started before the clear must not fill the cache again
+         evictedStamp = clock.incrementAndGet();
+         map.clear();
+      }
+
+      synchronized int size() {
+         return map.size();
+      }
+   }
+
+   /**
+    * Cache counters used to size the cache
+    */
+   @Getter
+   public static class Stats {
+      private final long hits;
+      private final long misses;
+      private final long evictions;
+      private final int size;
+      private final int maxSize;
+
+      Stats(long hits, long misses, long evictions, int size, int maxSize) {
+         this.hits = hits;
+         this.misses = misses;
+         this.evictions = evictions;
+         this.size = size;
+         this.maxSize = maxSize;
+      }
+
+      public double getHitRatio() {
+         long total = hits + misses;
+         return total == 0 ? 0.0 : (double) hits / total;
+      }
+   }
+}
@@ -0,0 +1,203 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process inverted index over the name, description and category of active products.
+ * Terms are kept in a sorted map so that every query token is matched as a prefix.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+   private static final int NAME_WEIGHT = 3;
+   private static final int CATEGORY_WEIGHT = 2;
+   private static final int DESCRIPTION_WEIGHT = 1;
+   private static final int EXACT_MATCH_BOOST = 2;
+   private static final int REBUILD_BATCH_SIZE = 1000;
+
+   private final ProductRepository productRepository;
+
+   /**
+    * term -> (product id -> field weight)
+    */
+   private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+
+   /**
+    * product id -> terms currently indexed for it, used to remove stale postings on reindex
+    */
+   private final Map<Long, Map<String, Integer>> documents = new ConcurrentHashMap<>();
+
+   /**
+    * Build the index from the database once the application (and DataLoader) has started
+    */
+   @EventListener(ApplicationReadyEvent.class)
+   public void rebuild() {
+      long start = System.currentTimeMillis();
+      postings.clear();
+      documents.clear();
+
+      long lastId = 0L;
+      List<Product> batch;
+      do {
+         batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+         for (Product product : batch) {
+            index(product);
+            lastId = product.getId();
+         }
+      } while (batch.size() == REBUILD_BATCH_SIZE);
+
+      log.info("Product search index built: {} products, {} terms in {} ms",
+              documents.size(), postings.size(), System.currentTimeMillis() - start);
+   }
+
+   /**
+    * Add or replace the postings of a single product; an inactive product is removed from the index
+    */
+   public void index(Product product) {
+      if (product == null || product.getId() == null) {
+         return;
+      }
+      if (!Boolean.TRUE.equals(product.getActive())) {
+         remove(product.getId());
+         return;
+      }
+
+      Map<String, Integer> terms = new HashMap<>();
+      addTerms(terms, product.getName(), NAME_WEIGHT);
+      addTerms(terms, product.getCategory(), CATEGORY_WEIGHT);
+      addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+      Long id = product.getId();
+      Map<String, Integer> previous = documents.put(id, terms);
+      if (previous != null) {
+         previous.keySet().stream()
+                 .filter(term -> !terms.containsKey(term))
+                 .forEach(term -> removePosting(term, id));
+      }
+      terms.forEach((term, weight) -> postings.compute(term, (t, ids) -> {
+         Map<Long, Integer> updated = ids != null ? ids : new ConcurrentHashMap<>();
+         updated.put(id, weight);
+         return updated;
+      }));
+   }
+
+   /**
+    * Remove a product from the index
+    */
+   public void remove(Long id) {
+      Map<String, Integer> previous = documents.remove(id);
+      if (previous != null) {
+         previous.keySet().forEach(term -> removePosting(term, id));
+      }
+   }
+
+   /**
+    * Search the index and return the matching product IDs for the requested page, best match first.
+    * Every token of the keyword must match (as a prefix) a term of the product.
+    */
+   public List<Long> search(String keyword, Pageable pageable) {
+      List<String> tokens = tokenize(keyword);
+      if (tokens.isEmpty()) {
+         return List.of();
+      }
+
+      Map<Long, Integer> scores = null;
+      for (String token : tokens) {
+         Map<Long, Integer> tokenScores = scoreToken(token);
+         if (scores == null) {
+            scores = tokenScores;
+         } else {
+            Map<Long, Integer> intersection = new HashMap<>();
+            for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+               Integer score = tokenScores.get(entry.getKey());
+               if (score != null) {
+                  intersection.put(entry.getKey(), entry.getValue() + score);
+               }
+            }
+            scores = intersection;
+         }
+         if (scores.isEmpty()) {
+            return List.of();
+         }
+      }
+
+      List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+      ranked.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+              .thenComparing(Map.Entry.comparingByKey()));
+
+      int from = (int) Math.min(pageable.getOffset(), ranked.size());
+      int to = Math.min(from + pageable.getPageSize(), ranked.size());
+      List<Long> ids = new ArrayList<>(to - from);
+      for (Map.Entry<Long, Integer> entry : ranked.subList(from, to)) {
+         ids.add(entry.getKey());
+      }
+      return ids;
+   }
+
+   /**
+    * Best score of every product with a term starting with the token
+    */
+   private Map<Long, Integer> scoreToken(String token) {
+      NavigableMap<String, Map<Long, Integer>> matches = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+      if (matches.isEmpty()) {
+         return Collections.emptyMap();
+      }
+
+      Map<Long, Integer> scores = new HashMap<>();
+      for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+         int boost = match.getKey().equals(token) ? EXACT_MATCH_BOOST : 1;
+         match.getValue().forEach((id, weight) -> scores.merge(id, weight * boost, Math::max));
+      }
+      return scores;
+   }
+
+   private void removePosting(String term, Long id) {
+      postings.computeIfPresent(term, (t, ids) -> {
+         ids.remove(id);
+         return ids.isEmpty() ? null : ids;
+      });
+   }
+
+   private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+      for (String token : tokenize(text)) {
+         terms.merge(token, weight, Integer::sum);
+      }
+   }
+
+   /**
+    * Lower-case the text and split it on anything that is not a letter or digit
+    */
+   static List<String> tokenize(String text) {
+      if (text == null || text.isBlank()) {
+         return List.of();
+      }
+      List<String> tokens = new ArrayList<>();
+      for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+         if (!token.isEmpty()) {
+            tokens.add(token);
+         }
+      }
+      return tokens;
+   }
+}
@@ -1,38 +1,60 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CategoryResponse;
+import com.ecommerce.dto.CursorPageResponse;
 import com.ecommerce.dto.ProductRequest;
 import com.ecommerce.dto.ProductResponse;
 import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.exception.InvalidOperationException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.Product;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.util.DtoMapper;
+import com.ecommerce.util.KeysetCursor;
+import com.ecommerce.util.SingleFlight;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service layer for product management
  */
 @Service
+@Timed("ecommerce.service")
 @RequiredArgsConstructor
 public class ProductService {
 
    private final ProductRepository productRepository;
+   private final ProductCatalogCache productCache;
+   private final ProductSearchIndex searchIndex;
+   private final CategoryRegistry categoryRegistry;
+   private final StockReservationLedger stockLedger;
    private final DtoMapper dtoMapper;
+   private final SingleFlight<ProductLoad, Product> productLoads = new SingleFlight<>();
 
    /**
     * Get all active products with pagination
     */
    @Transactional(readOnly = true)
    public Page<ProductResponse> getActiveProducts(Pageable pageable) {
-      Page<Product> products = productRepository.findByActiveTrue(pageable);
-      return products.map(dtoMapper::toProductResponse);
+      Page<Long> ids = productRepository.findActiveIds(pageable);
+      List<ProductResponse> content = dtoMapper.toProductResponseList(getProductEntitiesByIds(ids.getContent()));
+      return new PageImpl<>(content, pageable, ids.getTotalElements());
    }
 
    /**
@@ -40,57 +62,153 @@ public class ProductService {
     */
    @Transactional(readOnly = true)
    public List<ProductResponse> getActiveProducts() {
-      List<Product> products = productRepository.findByActiveTrue();
-      return dtoMapper.toProductResponseList(products);
+      List<Long> ids = productRepository.findActiveIds();
+      return dtoMapper.toProductResponseList(getProductEntitiesByIds(ids));
    }
 
    /**
-    * Get product by ID (returns entity for internal use)
+    * Get active products with keyset pagination, sorted by ID (default) or by price.
+    * Every page costs the same regardless of depth; the total count is only computed when requested.
     */
    @Transactional(readOnly = true)
-   public Product getProductEntityById(Long id) {
-      return productRepository.findById(id)
-              .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+   public CursorPageResponse<ProductResponse> scrollActiveProducts(String cursor, String sort, int size,
+                                                                   boolean includeTotal) {
+      size = KeysetCursor.pageSize(size);
+      KeysetCursor after = KeysetCursor.decode(cursor, sort);
+      String key = after != null ? after.getSort() : sort != null ? sort : "id";
+      Pageable limit = KeysetCursor.limit(size);
+
+      List<Long> ids = switch (key) {
+         case "id" -> productRepository.findActiveIdsAfter(after != null ? after.getId() : 0L, limit);
+         case "price" -> after != null
+                 ? productRepository.findActiveIdsAfterPrice(after.decimalValue(), after.getId(), limit)
+                 : productRepository.findActiveIdsOrderByPrice(limit);
+         default -> throw new InvalidOperationException("Products cannot be sorted by: " + key);
+      };
+
+      boolean hasNext = ids.size() > size;
+      List<Product> products = getProductEntitiesByIds(hasNext ? ids.subList(0, size) : ids);
+      KeysetCursor next = null;
+      if (hasNext && !products.isEmpty()) {
+         Product last = products.get(products.size() - 1);
+         next = new KeysetCursor(key, "price".equals(key) ? last.getPrice().toPlainString() : null, last.getId());
+      }
+      Long total = includeTotal ? productRepository.countByActiveTrue() : null;
+      return dtoMapper.toCursorPageResponse(dtoMapper.toProductResponseList(products), next, total);
    }
 
    /**
-    * Get product by ID (returns DTO)
+    * Stream every product (active or not) to the consumer in ID order, selected straight into
+    * response DTOs through a fetch-size cursor
     */
    @Transactional(readOnly = true)
-   public ProductResponse getProductById(Long id) {
-      Product product = getProductEntityById(id);
+   public void exportProducts(Consumer<ProductResponse> consumer) {
+      try (Stream<ProductResponse> products = productRepository.streamAllResponses()) {
+         products.forEach(consumer);
+      }
+   }
+
+   /**
+    * Get product by ID (returns a detached snapshot from the catalog cache for internal use).
+    * Concurrent cache misses for the same product share one database load. Loads are keyed by
+    * the product's cache ticket as well, so a request arriving after an invalidation of the product
+    * never joins a load that may have read it before the write.
+    */
+   public Product getProductEntityById(Long id) {
+      return productCache.get(id).orElseGet(() -> {
+         long ticket = productCache.ticket(id);
+         Product shared = productLoads.load(new ProductLoad(id, ticket), () -> {
+            Product product = loadProduct(id);
+            productCache.put(product, ticket);
+            return ProductCatalogCache.copyOf(product);
+         });
+         return ProductCatalogCache.copyOf(shared);
+      });
+   }
+
+   /**
+    * Counters of coalesced product loads
+    */
+   public SingleFlight.Stats getProductLoadStats() {
+      return productLoads.stats();
+   }
+
+   /**
+    * Get products by IDs, preserving the order of the given IDs.
+    * Cache misses are loaded from the database in a single query.
+    */
+   public List<Product> getProductEntitiesByIds(List<Long> ids) {
+      Map<Long, Product> found = new HashMap<>();
+      List<Long> missing = new ArrayList<>();
+      for (Long id : ids) {
+         productCache.get(id).ifPresentOrElse(product -> found.put(id, product), () -> missing.add(id));
+      }
+
+      if (!missing.isEmpty()) {
+         Map<Long, Long> tickets = new HashMap<>();
+         for (Long id : missing) {
+            tickets.put(id, productCache.ticket(id));
+         }
+         for (Product product : productRepository.findAllById(missing)) {
+            productCache.put(product, tickets.get(product.getId()));
+            found.put(product.getId(), product);
+         }
+      }
+
+      List<Product> products = new ArrayList<>(ids.size());
+      for (Long id : ids) {
+         Product product = found.get(id);
+         if (product != null) {
+            products.add(product);
+         }
+      }
+      return products;
+   }
+
+   /**
+    * Map a loaded product to its response, e.g. after its ETag was checked
+    */
+   public ProductResponse toProductResponse(Product product) {
       return dtoMapper.toProductResponse(product);
    }
 
    /**
-    * Get products by category
+    * Strong ETag of a loaded product. The version is bumped by every change, including stock updates,
+    * so the ETag changes exactly when the product's response does.
+    */
+   public String getProductETag(Product product) {
+      return "\"" + product.getId() + "-" + product.getVersion() + "\"";
+   }
+
+   /**
+    * Get products by category, selected straight into response DTOs
     */
    @Transactional(readOnly = true)
    public List<ProductResponse> getProductsByCategory(String category) {
-      List<Product> products = productRepository.findByCategory(category);
-      return dtoMapper.toProductResponseList(products);
+      return productRepository.findResponsesByCategory(category);
    }
 
    /**
-    * Search products by keyword
+    * Search products by keyword in name, description and category, best match first
     */
    @Transactional(readOnly = true)
-   public List<ProductResponse> searchProducts(String keyword) {
-      List<Product> products = productRepository.findByNameContainingIgnoreCase(keyword);
-      return dtoMapper.toProductResponseList(products);
+   public List<ProductResponse> searchProducts(String keyword, Pageable pageable) {
+      List<Long> ids = searchIndex.search(keyword, pageable);
+      return dtoMapper.toProductResponseList(getProductEntitiesByIds(ids));
    }
 
    /**
     * Get all unique categories
     */
-   @Transactional(readOnly = true)
    public List<String> getAllCategories() {
-      List<Product> products = productRepository.findAll();
-      return products.stream()
-              .map(Product::getCategory)
-              .distinct()
-              .sorted()
-              .collect(Collectors.toList());
+      return categoryRegistry.getCategoryNames();
+   }
+
+   /**
+    * Get all categories with their product counts
+    */
+   public List<CategoryResponse> getCategoriesWithCounts() {
+      return categoryRegistry.getCategories();
    }
 
    /**
@@ -100,6 +218,9 @@ public class ProductService {
    public ProductResponse createProduct(ProductRequest request) {
       Product product = dtoMapper.toProduct(request);
       Product savedProduct = productRepository.save(product);
+      invalidateAfterCommit(savedProduct);
+      reindexAfterCommit(savedProduct);
+      recategorizeAfterCommit(null, false, savedProduct);
       return dtoMapper.toProductResponse(savedProduct);
    }
 
@@ -108,9 +229,17 @@ public class ProductService {
     */
    @Transactional
    public ProductResponse updateProduct(Long id, ProductRequest request) {
-      Product product = getProductEntityById(id);
+      Product product = loadProduct(id);
+      String oldCategory = product.getCategory();
+      boolean oldActive = product.getActive();
       dtoMapper.updateProductFromRequest(product, request);
       Product updatedProduct = productRepository.save(product);
+      invalidateAfterCommit(updatedProduct);
+      reindexAfterCommit(updatedProduct);
+      recategorizeAfterCommit(oldCategory, oldActive, updatedProduct);
+      if (stockLedger.isHot(id)) {
+         afterCommit(() -> stockLedger.reconcile(id));
+      }
       return dtoMapper.toProductResponse(updatedProduct);
    }
 
@@ -119,33 +248,146 @@ public class ProductService {
     */
    @Transactional
    public void deleteProduct(Long id) {
-      Product product = getProductEntityById(id);
+      Product product = loadProduct(id);
+      boolean oldActive = product.getActive();
       product.setActive(false);
       productRepository.save(product);
+      invalidateAfterCommit(product);
+      reindexAfterCommit(product);
+      recategorizeAfterCommit(product.getCategory(), oldActive, product);
    }
 
    /**
-    * Update product stock (decrease by quantity)
+    * Update product stock (decrease by quantity).
+    * Uses a single conditional UPDATE, so concurrent buyers never hit optimistic-lock failures.
     */
    @Transactional
    public void updateStock(Long productId, int quantity) {
-      Product product = getProductEntityById(productId);
-      int newStock = product.getStockQuantity() - quantity;
+      if (stockLedger.isHot(productId)) {
+         reserveHotStock(productId, quantity);
+         return;
+      }
+      int updated = productRepository.decrementStock(productId, quantity, LocalDateTime.now());
+      if (updated == 0) {
+         throw insufficientStock(productId);
+      }
+      afterCommit(() -> productCache.invalidate(productId, null));
+   }
 
-      if (newStock < 0) {
-         throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
+   /**
+    * Decrease stock for all lines of an order in one JDBC batch.
+    * Fails the whole reservation (and rolls back the transaction) if any product is short.
+    */
+   @Transactional
+   public void reserveStock(Map<Long, Integer> quantities) {
+      if (quantities.isEmpty()) {
+         return;
       }
 
-      product.setStockQuantity(newStock);
-      productRepository.save(product);
+      // Lock rows in id order so concurrent checkouts cannot deadlock
+      Map<Long, Integer> ordered = new TreeMap<>();
+      quantities.forEach((productId, quantity) -> {
+         if (stockLedger.isHot(productId)) {
+            reserveHotStock(productId, quantity);
+         } else {
+            ordered.put(productId, quantity);
+         }
+      });
+      if (ordered.isEmpty()) {
+         return;
+      }
+
+      List<Long> productIds = new ArrayList<>(ordered.keySet());
+      int[] updated = productRepository.decrementStockBatch(ordered, LocalDateTime.now());
+
+      for (int i = 0; i < updated.length; i++) {
+         if (updated[i] == 0) {
+            throw insufficientStock(productIds.get(i));
+         }
+      }
+      afterCommit(() -> productIds.forEach(id -> productCache.invalidate(id, null)));
    }
 
    /**
-    * Check if product has sufficient stock
+    * Restore product stock (increase by quantity), e.g. when an order is cancelled
     */
-   @Transactional(readOnly = true)
-   public boolean hasStock(Long productId, int quantity) {
+   @Transactional
+   public void restoreStock(Long productId, int quantity) {
+      productRepository.adjustStock(productId, quantity, LocalDateTime.now());
+      afterCommit(() -> {
+         productCache.invalidate(productId, null);
+         stockLedger.release(productId, quantity);
+      });
+   }
+
+   /**
+    * Reserve stock of a hot product through the in-memory stock ledger
+    */
+   private void reserveHotStock(Long productId, int quantity) {
+      if (!stockLedger.reserve(productId, quantity)) {
+         throw insufficientStock(productId);
+      }
+   }
+
+   /**
+    * Build the exception for a failed conditional stock decrement
+    */
+   private RuntimeException insufficientStock(Long productId) {
       Product product = getProductEntityById(productId);
-      return product.getStockQuantity() >= quantity;
+      return new InsufficientStockException("Insufficient stock for product: " + product.getName());
+   }
+
+   /**
+    * Load a managed product from the database, bypassing the catalog cache (for write paths)
+    */
+   private Product loadProduct(Long id) {
+      return productRepository.findById(id)
+              .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+   }
+
+   /**
+    * Invalidate the cached snapshot once the surrounding transaction commits.
+    * The version is read at commit time, after Hibernate has incremented it.
+    */
+   private void invalidateAfterCommit(Product product) {
+      afterCommit(() -> productCache.invalidate(product.getId(), product.getVersion()));
+   }
+
+   /**
+    * Update the search index once the surrounding transaction commits
+    */
+   private void reindexAfterCommit(Product product) {
+      afterCommit(() -> searchIndex.index(product));
+   }
+
+   /**
+    * Update the category counts once the surrounding transaction commits
+    */
+   private void recategorizeAfterCommit(String oldCategory, boolean oldActive, Product product) {
+      String newCategory = product.getCategory();
+      boolean newActive = product.getActive();
+      afterCommit(() -> categoryRegistry.move(oldCategory, oldActive, newCategory, newActive));
+   }
+
+   /**
+    * Run the action after the current transaction commits, or immediately if there is none
+    */
+   private void afterCommit(Runnable action) {
+      if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+         action.run();
+         return;
+      }
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+         @Override
+         public void afterCommit() {
+            action.run();
+         }
+      });
+   }
+
+   /**
+    * Key of one coalesced product load
+    */
+   private record ProductLoad(Long id, long ticket) {
    }
-}
\ No newline at end of file
+}
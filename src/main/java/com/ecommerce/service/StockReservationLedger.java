@@ -0,0 +1,385 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.StockLedgerEntry;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.StockLedgerEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Opt-in stock reservation engine for designated hot (flash-sale) products.
+ *
+ * Available stock of a hot product is kept in striped in-memory counters, so concurrent checkouts
+ * reserve stock without touching the product row. Every reservation is also journaled as a
+ * StockLedgerEntry inside the checkout transaction; a scheduled flusher applies the journal to
+ * products.stock_quantity in batches. On startup the journal is replayed before the counters
+ * are seeded, so a crash never loses a committed reservation.
+ */
+@Component
+@Slf4j
+public class StockReservationLedger {
+
+   private static final int FLUSH_BATCH_SIZE = 1000;
+
+   private final ProductRepository productRepository;
+   private final StockLedgerEntryRepository ledgerEntryRepository;
+   private final ProductCatalogCache productCache;
+   private final TransactionTemplate transactionTemplate;
+   private final Set<Long> configuredProductIds;
+   private final int stripes;
+
+   private final Map<Long, HotStock> hotStocks = new ConcurrentHashMap<>();
+
+   public StockReservationLedger(ProductRepository productRepository,
+                                 StockLedgerEntryRepository ledgerEntryRepository,
+                                 ProductCatalogCache productCache,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${inventory.hot-products:}") Set<Long> configuredProductIds,
+                                 @Value("${inventory.ledger.stripes:16}") int stripes) {
+      this.productRepository = productRepository;
+      this.ledgerEntryRepository = ledgerEntryRepository;
+      this.productCache = productCache;
+      this.transactionTemplate = new TransactionTemplate(transactionManager);
+      this.configuredProductIds = configuredProductIds;
+      this.stripes = stripes;
+   }
+
+   /**
+    * Replay any journal left over from a previous run, then enable the configured hot products
+    */
+   @EventListener(ApplicationReadyEvent.class)
+   public void recover() {
+      List<Long> pending = ledgerEntryRepository.findPendingProductIds();
+      for (Long productId : pending) {
+         flush(productId);
+      }
+      if (!pending.isEmpty()) {
+         log.info("Recovered stock ledger journal for {} products", pending.size());
+      }
+      configuredProductIds.forEach(this::enable);
+   }
+
+   /**
+    * Start serving reservations of a product from memory
+    */
+   public void enable(Long productId) {
+      HotStock hotStock = new HotStock(stripes);
+      if (hotStocks.putIfAbsent(productId, hotStock) != null) {
+         return;
+      }
+      if (!reconcile(productId)) {
+         hotStocks.remove(productId);
+         log.warn("Cannot enable stock ledger for unknown product {}", productId);
+         return;
+      }
+      log.info("Stock ledger enabled for product {} with {} units available", productId, hotStock.available());
+   }
+
+   /**
+    * Stop serving reservations of a product from memory, applying its journal first
+    */
+   public void disable(Long productId) {
+      if (hotStocks.remove(productId) != null) {
+         flush(productId);
+      }
+   }
+
+   /**
+    * Whether reservations of the product are served by the ledger
+    */
+   public boolean isHot(Long productId) {
+      return hotStocks.containsKey(productId);
+   }
+
+   /**
+    * Reserve stock of a hot product in memory and journal it in the current transaction.
+    * The reservation is released again if the transaction rolls back.
+    *
+    * @return false if not enough stock is available
+    */
+   public boolean reserve(Long productId, int quantity) {
+      HotStock hotStock = hotStocks.get(productId);
+      if (hotStock == null) {
+         throw new IllegalStateException("Product " + productId + " is not managed by the stock ledger");
+      }
+      if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+         throw new IllegalStateException("Stock ledger reservations require an active transaction");
+      }
+
+      // Counted as in flight before the units are taken, so a concurrent reconcile never sees taken
+      // units that are not accounted for
+      Reservation reservation = new Reservation(quantity);
+      hotStock.lock.readLock().lock();
+      try {
+         hotStock.inFlight.add(reservation);
+         if (!hotStock.tryTake(quantity)) {
+            hotStock.inFlight.remove(reservation);
+            return false;
+         }
+      } finally {
+         hotStock.lock.readLock().unlock();
+      }
+
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+         @Override
+         public void afterCompletion(int status) {
+            hotStock.lock.readLock().lock();
+            try {
+               hotStock.inFlight.remove(reservation);
+               if (status == STATUS_COMMITTED) {
+                  hotStock.dirty.set(true);
+               } else {
+                  hotStock.put(quantity);
+               }
+            } finally {
+               hotStock.lock.readLock().unlock();
+            }
+         }
+      });
+
+      StockLedgerEntry entry = ledgerEntryRepository.save(StockLedgerEntry.builder()
+              .productId(productId)
+              .quantity(quantity)
+              .build());
+      reservation.entryId = entry.getId();
+      return true;
+   }
+
+   /**
+    * Return stock to a hot product after it was added back to products.stock_quantity
+    */
+   public void release(Long productId, int quantity) {
+      HotStock hotStock = hotStocks.get(productId);
+      if (hotStock != null) {
+         hotStock.put(quantity);
+      }
+   }
+
+   /**
+    * Apply journaled reservations of all hot products that changed since the last run
+    */
+   @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:200}")
+   public void flushAll() {
+      hotStocks.forEach((productId, hotStock) -> {
+         if (hotStock.dirty.getAndSet(false)) {
+            hotStock.flushLock.lock();
+            try {
+               flush(productId);
+            } catch (RuntimeException e) {
+               hotStock.dirty.set(true);
+               log.error("Failed to flush stock ledger for product {}: {}", productId, e.getMessage(), e);
+            } finally {
+               hotStock.flushLock.unlock();
+            }
+         }
+      });
+   }
+
+   /**
+    * Re-seed the in-memory counters of a hot product from products.stock_quantity,
+    * e.g. after the stock was edited directly.
+    *
+    * Available units are the stock minus the journal not yet applied, minus reservations whose
+    * transaction has not committed. Flushes are held off while the stock and journal are read,
+    * and reservations while the counters are reset, so no reservation is counted twice or lost.
+    *
+    * @return false if the product does not exist
+    */
+   public boolean reconcile(Long productId) {
+      HotStock hotStock = hotStocks.get(productId);
+      if (hotStock == null) {
+         return true;
+      }
+      hotStock.flushLock.lock();
+      try {
+         flush(productId);
+         hotStock.lock.writeLock().lock();
+         try {
+            Optional<Integer> stock = productRepository.findStockQuantityById(productId);
+            if (stock.isEmpty()) {
+               return false;
+            }
+            long available = stock.get();
+            Set<Long> journaled = new HashSet<>();
+            for (StockLedgerEntry entry : ledgerEntryRepository.findByProductId(productId)) {
+               available -= entry.getQuantity();
+               journaled.add(entry.getId());
+            }
+            for (Reservation reservation : hotStock.inFlight) {
+               // A committed reservation stays in flight until its completion callback has run,
+               // though its entry may already be journaled or even applied to the stock
+               if (!reservation.applied && !journaled.contains(reservation.entryId)) {
+                  available -= reservation.quantity;
+               }
+            }
+            hotStock.reset(available);
+            return true;
+         } finally {
+            hotStock.lock.writeLock().unlock();
+         }
+      } finally {
+         hotStock.flushLock.unlock();
+      }
+   }
+
+   /**
+    * Apply the journal of one product to products.stock_quantity, one batch per transaction.
+    * Reservations still in flight whose entries were applied are marked, so a reconcile does not
+    * subtract them again.
+    */
+   private void flush(Long productId) {
+      HotStock hotStock = hotStocks.get(productId);
+      boolean more = true;
+      while (more) {
+         Set<Long> applied = new HashSet<>();
+         more = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<StockLedgerEntry> entries = ledgerEntryRepository.findByProductIdOrderByIdAsc(
+                    productId, PageRequest.of(0, FLUSH_BATCH_SIZE));
+            if (entries.isEmpty()) {
+               return false;
+            }
+            int total = entries.stream().mapToInt(StockLedgerEntry::getQuantity).sum();
+            productRepository.adjustStock(productId, -total, LocalDateTime.now());
+            ledgerEntryRepository.deleteAllInBatch(entries);
+            entries.forEach(entry -> applied.add(entry.getId()));
+            return entries.size() == FLUSH_BATCH_SIZE;
+         }));
+         if (hotStock != null && !applied.isEmpty()) {
+            hotStock.inFlight.forEach(reservation -> {
+               if (applied.contains(reservation.entryId)) {
+                  reservation.applied = true;
+               }
+            });
+         }
+      }
+      productCache.invalidate(productId, null);
+   }
+
+   /**
+    * Available units of one hot product, spread over cache-line padded stripes
+    */
+   private static final class HotStock {
+
+      private static final int PADDING = 8;
+
+      private final AtomicLongArray cells;
+      private final int stripes;
+      private final Set<Reservation> inFlight = ConcurrentHashMap.newKeySet();
+      private final AtomicBoolean dirty = new AtomicBoolean();
+
+      /**
+       * Shared by reservations and their completion callbacks, exclusive while reconciling
+       */
+      private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+      /**
+       * Keeps the flusher from applying the journal while a reconcile reads the stock
+       */
+      private final Lock flushLock = new ReentrantLock();
+
+      HotStock(int stripes) {
+         this.stripes = stripes;
+         this.cells = new AtomicLongArray(stripes * PADDING);
+      }
+
+      boolean tryTake(int quantity) {
+         int start = ThreadLocalRandom.current().nextInt(stripes);
+         for (int i = 0; i < stripes; i++) {
+            if (tryTake((start + i) % stripes, quantity)) {
+               return true;
+            }
+         }
+         return takeConsolidated(quantity);
+      }
+
+      void put(long quantity) {
+         cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+      }
+
+      long available() {
+         long total = 0;
+         for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+         }
+         return total;
+      }
+
+      synchronized void reset(long available) {
+         for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, 0);
+         }
+         spread(Math.max(available, 0));
+      }
+
+      private boolean tryTake(int stripe, int quantity) {
+         int index = stripe * PADDING;
+         long current;
+         do {
+            current = cells.get(index);
+            if (current < quantity) {
+               return false;
+            }
+         } while (!cells.compareAndSet(index, current, current - quantity));
+         return true;
+      }
+
+      /**
+       * Slow path when no single stripe holds enough: gather all stripes, take, and spread the rest
+       */
+      private synchronized boolean takeConsolidated(int quantity) {
+         long total = 0;
+         for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+         }
+         boolean taken = total >= quantity;
+         spread(taken ? total - quantity : total);
+         return taken;
+      }
+
+      private void spread(long units) {
+         long share = units / stripes;
+         long remainder = units % stripes;
+         for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+         }
+      }
+   }
+
+   /**
+    * Units taken by a transaction that has not completed yet, with the ID of its journal entry once saved
+    */
+   private static final class Reservation {
+
+      private final int quantity;
+      private volatile Long entryId;
+      private volatile boolean applied;
+
+      Reservation(int quantity) {
+         this.quantity = quantity;
+      }
+   }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.util;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hibernate connection provider that hands out connections from the pool wrapped in thin JDBC proxies,
+ * which add every statement execution, its JDBC time and the rows it read or wrote to the current
+ * request's {@link SqlStats}. Outside a request the wrappers only delegate; result sets are then
+ * not wrapped at all, so scheduled jobs pay nothing per row.
+ */
+public class CountingConnectionProvider implements ConnectionProvider {
+
+   private final DataSource dataSource;
+
+   public CountingConnectionProvider(DataSource dataSource) {
+      this.dataSource = dataSource;
+   }
+
+   @Override
+   public Connection getConnection() throws SQLException {
+      return countingConnection(dataSource.getConnection());
+   }
+
+   /**
+    * Connection whose statements report to the current thread's {@link SqlStats}
+    */
+   static Connection countingConnection(Connection connection) {
+      return proxy(Connection.class, (proxy, method, args) -> {
+         Object result = invoke(connection, method, args);
+         if (result instanceof Statement statement) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return countingStatement(statement, method.getReturnType(), sql);
+         }
+         return result;
+      });
+   }
+
+   @Override
+   public void closeConnection(Connection connection) throws SQLException {
+      connection.close();
+   }
+
+   @Override
+   public boolean supportsAggressiveRelease() {
+      return false;
+   }
+
+   @Override
+   public boolean isUnwrappableAs(Class<?> type) {
+      return type.isInstance(this) || type.isInstance(dataSource);
+   }
+
+   @Override
+   public <T> T unwrap(Class<T> type) {
+      if (type.isInstance(this)) {
+         return type.cast(this);
+      }
+      if (type.isInstance(dataSource)) {
+         return type.cast(dataSource);
+      }
+      throw new IllegalArgumentException("Cannot unwrap to " + type.getName());
+   }
+
+   /**
+    * Statement, PreparedStatement or CallableStatement that times its executions
+    */
+   private static Object countingStatement(Statement statement, Class<?> type, String preparedSql) {
+      return proxy(type, (proxy, method, args) -> {
+         SqlStats stats = SqlStats.current();
+         if (stats == null || !method.getName().startsWith("execute")) {
+            Object result = invoke(statement, method, args);
+            return stats != null && result instanceof ResultSet resultSet && "getResultSet".equals(method.getName())
+                    ? countingResultSet(resultSet, stats) : result;
+         }
+
+         long start = System.nanoTime();
+         Object result = invoke(statement, method, args);
+         String sql = preparedSql != null ? preparedSql
+                 : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+         stats.executed(sql, System.nanoTime() - start);
+
+         if (result instanceof ResultSet resultSet) {
+            return countingResultSet(resultSet, stats);
+         }
+         if (result instanceof Integer count) {
+            stats.rows(count);
+         } else if (result instanceof Long count) {
+            stats.rows(count);
+         } else if (result instanceof int[] counts) {
+            for (int count : counts) {
+               stats.rows(count);
+            }
+         } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+               stats.rows(count);
+            }
+         }
+         return result;
+      });
+   }
+
+   private static ResultSet countingResultSet(ResultSet resultSet, SqlStats stats) {
+      return proxy(ResultSet.class, (proxy, method, args) -> {
+         Object result = invoke(resultSet, method, args);
+         if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+            stats.rows(1);
+         }
+         return result;
+      });
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+      return (T) Proxy.newProxyInstance(CountingConnectionProvider.class.getClassLoader(), new Class<?>[]{type}, handler);
+   }
+
+   private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+         return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+         throw e.getCause();
+      }
+   }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.util;
+
+import org.springframework.core.InfrastructureProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource for plain JDBC access (JdbcTemplate) whose connections report to {@link SqlStats} like those
+ * of {@link CountingConnectionProvider}. As an {@link InfrastructureProxy} of the pooled DataSource it still
+ * finds the connection bound to a JPA transaction, which Hibernate has already wrapped, so nothing is counted twice.
+ */
+public class CountingDataSource extends DelegatingDataSource implements InfrastructureProxy {
+
+   public CountingDataSource(DataSource targetDataSource) {
+      super(targetDataSource);
+   }
+
+   @Override
+   public Connection getConnection() throws SQLException {
+      return CountingConnectionProvider.countingConnection(obtainTargetDataSource().getConnection());
+   }
+
+   @Override
+   public Connection getConnection(String username, String password) throws SQLException {
+      return CountingConnectionProvider.countingConnection(obtainTargetDataSource().getConnection(username, password));
+   }
+
+   @Override
+   public Object getWrappedObject() {
+      return obtainTargetDataSource();
+   }
+}
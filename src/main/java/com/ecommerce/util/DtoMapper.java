@@ -118,6 +118,24 @@ public class DtoMapper {
               .build();
    }
 
+   /**
+    * Convert a cart change to CartDeltaResponse DTO, with totals over all cart items
+    */
+   public CartDeltaResponse toCartDeltaResponse(List<CartItem> cartItems, CartItem changedItem,
+                                                Long removedItemId, String sessionId) {
+      BigDecimal totalAmount = cartItems.stream()
+              .map(CartItem::getSubtotal)
+              .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+      return CartDeltaResponse.builder()
+              .item(toCartItemResponse(changedItem))
+              .removedItemId(removedItemId)
+              .totalAmount(totalAmount)
+              .itemCount(cartItems.size())
+              .sessionId(sessionId)
+              .build();
+   }
+
    /**
     * Convert OrderItem entity to OrderItemResponse DTO
     */
@@ -163,6 +181,76 @@ public class DtoMapper {
               .build();
    }
 
+   /**
+    * Convert OrderView projection and its item projections to OrderResponse DTO
+    */
+   public OrderResponse toOrderResponse(OrderView order, List<OrderItemView> orderItems) {
+      if (order == null) {
+         return null;
+      }
+
+      List<OrderItemResponse> orderItemResponses = orderItems.stream()
+              .map(this::toOrderItemResponse)
+              .collect(Collectors.toList());
+
+      return OrderResponse.builder()
+              .id(order.getId())
+              .orderNumber(order.getOrderNumber())
+              .customerName(order.getCustomerName())
+              .customerEmail(order.getCustomerEmail())
+              .shippingAddress(order.getShippingAddress())
+              .orderItems(orderItemResponses)
+              .totalAmount(order.getTotalAmount())
+              .status(order.getStatus().name())
+              .paymentStatus(order.getPaymentStatus().name())
+              .orderDate(order.getOrderDate())
+              .createdAt(order.getCreatedAt())
+              .updatedAt(order.getUpdatedAt())
+              .build();
+   }
+
+   /**
+    * Convert OrderItemView projection to OrderItemResponse DTO
+    */
+   public OrderItemResponse toOrderItemResponse(OrderItemView orderItem) {
+      return OrderItemResponse.builder()
+              .id(orderItem.getId())
+              .product(orderItem.getProduct())
+              .quantity(orderItem.getQuantity())
+              .priceAtPurchase(orderItem.getPriceAtPurchase())
+              .subtotal(orderItem.getSubtotal())
+              .build();
+   }
+
+   /**
+    * Build the outbox payload for an order placed from the given cart items
+    */
+   public OrderPlacedEvent toOrderPlacedEvent(Order order, String sessionId, List<CartItem> cartItems) {
+      return OrderPlacedEvent.builder()
+              .orderId(order.getId())
+              .orderNumber(order.getOrderNumber())
+              .sessionId(sessionId)
+              .cartItemIds(cartItems.stream().map(CartItem::getId).collect(Collectors.toList()))
+              .customerName(order.getCustomerName())
+              .customerEmail(order.getCustomerEmail())
+              .totalAmount(order.getTotalAmount())
+              .units(cartItems.stream().mapToInt(CartItem::getQuantity).sum())
+              .build();
+   }
+
+   /**
+    * Build a keyset paginated response; the next cursor is null on the last page
+    */
+   public <T> CursorPageResponse<T> toCursorPageResponse(List<T> content, KeysetCursor next, Long totalElements) {
+      return CursorPageResponse.<T>builder()
+              .content(content)
+              .nextCursor(next != null ? next.encode() : null)
+              .hasNext(next != null)
+              .size(content.size())
+              .totalElements(totalElements)
+              .build();
+   }
+
    /**
     * Convert list of Products to list of ProductResponses
     */
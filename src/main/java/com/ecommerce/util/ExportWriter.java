@@ -0,0 +1,176 @@
+package com.ecommerce.util;
+
+import com.ecommerce.dto.OrderItemResponse;
+import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.exception.InvalidOperationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental NDJSON or CSV writer for export endpoints.
+ * Every record is written to the output as soon as it is received, so nothing is collected in memory.
+ * The CSV header is written when the writer is opened, so an empty export is still a valid CSV file.
+ */
+public class ExportWriter implements Closeable {
+
+   private static final String[] PRODUCT_COLUMNS = {
+           "id", "name", "description", "price", "stockQuantity", "category", "imageUrl", "active"};
+
+   private static final String[] ORDER_COLUMNS = {
+           "orderId", "orderNumber", "customerName", "customerEmail", "shippingAddress", "status",
+           "paymentStatus", "totalAmount", "orderDate", "itemId", "productId", "productName", "quantity",
+           "priceAtPurchase", "subtotal"};
+
+   /**
+    * Supported export formats
+    */
+   @Getter
+   public enum Format {
+      NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+      CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+      private final MediaType mediaType;
+      private final String extension;
+
+      Format(MediaType mediaType, String extension) {
+         this.mediaType = mediaType;
+         this.extension = extension;
+      }
+
+      public static Format of(String name) {
+         for (Format format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+               return format;
+            }
+         }
+         throw new InvalidOperationException("Unsupported export format: " + name);
+      }
+   }
+
+   private final Format format;
+   private final JsonGenerator json;
+   private final ObjectWriter jsonWriter;
+   private final Writer csv;
+
+   /**
+    * Writer for a product export (writeProduct)
+    */
+   public static ExportWriter forProducts(Format format, ObjectMapper objectMapper, OutputStream out) {
+      return new ExportWriter(format, objectMapper, out, PRODUCT_COLUMNS);
+   }
+
+   /**
+    * Writer for an order export (writeOrder)
+    */
+   public static ExportWriter forOrders(Format format, ObjectMapper objectMapper, OutputStream out) {
+      return new ExportWriter(format, objectMapper, out, ORDER_COLUMNS);
+   }
+
+   private ExportWriter(Format format, ObjectMapper objectMapper, OutputStream out, String[] columns) {
+      this.format = format;
+      try {
+         if (format == Format.NDJSON) {
+            this.json = objectMapper.getFactory().createGenerator(out);
+            this.json.setRootValueSeparator(null);
+            this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.csv = null;
+         } else {
+            this.json = null;
+            this.jsonWriter = null;
+            this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeRow((Object[]) columns);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /**
+    * Write one product as a JSON line or a CSV row
+    */
+   public void writeProduct(ProductResponse product) {
+      if (format == Format.NDJSON) {
+         writeJson(product);
+         return;
+      }
+      writeRow(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+              product.getStockQuantity(), product.getCategory(), product.getImageUrl(), product.getActive());
+   }
+
+   /**
+    * Write one order as a JSON line, or as one CSV row per order item
+    */
+   public void writeOrder(OrderResponse order) {
+      if (format == Format.NDJSON) {
+         writeJson(order);
+         return;
+      }
+      for (OrderItemResponse item : order.getOrderItems()) {
+         writeRow(order.getId(), order.getOrderNumber(), order.getCustomerName(), order.getCustomerEmail(),
+                 order.getShippingAddress(), order.getStatus(), order.getPaymentStatus(), order.getTotalAmount(),
+                 order.getOrderDate(), item.getId(), item.getProduct().getId(), item.getProduct().getName(),
+                 item.getQuantity(), item.getPriceAtPurchase(), item.getSubtotal());
+      }
+   }
+
+   @Override
+   public void close() throws IOException {
+      if (json != null) {
+         json.close();
+      } else {
+         csv.close();
+      }
+   }
+
+   private void writeJson(Object value) {
+      try {
+         jsonWriter.writeValue(json, value);
+         json.writeRaw('\n');
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private void writeRow(Object... cells) {
+      try {
+         for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+               csv.write(',');
+            }
+            csv.write(escape(cells[i]));
+         }
+         csv.write("\r\n");
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /**
+    * Quote a CSV cell if it contains a separator, quote or line break
+    */
+   private static String escape(Object cell) {
+      if (cell == null) {
+         return "";
+      }
+      String value = cell instanceof BigDecimal decimal ? decimal.toPlainString() : cell.toString();
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+         return value;
+      }
+      return '"' + value.replace("\"", "\"\"") + '"';
+   }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.util;
+
+import com.ecommerce.exception.InvalidOperationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset paginated listing: the sort key, the sort value and the ID of the last row returned.
+ * Encoded as an opaque URL-safe token so that clients cannot depend on its contents.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+
+   /**
+    * Largest page a client can request; larger sizes are capped
+    */
+   public static final int MAX_PAGE_SIZE = 100;
+
+   private static final String SEPARATOR = "|";
+
+   /**
+    * Sort key the cursor was issued for
+    */
+   private final String sort;
+
+   /**
+    * Sort value of the last row, or null when sorting by ID only
+    */
+   private final String value;
+
+   /**
+    * ID of the last row, used as tie-breaker
+    */
+   private final Long id;
+
+   public String encode() {
+      String raw = sort + SEPARATOR + (value != null ? value : "") + SEPARATOR + id;
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+   }
+
+   /**
+    * Decode a token, checking it against the requested sort key (if any)
+    *
+    * @return null if no token was given
+    */
+   public static KeysetCursor decode(String token, String sort) {
+      if (token == null || token.isBlank()) {
+         return null;
+      }
+      KeysetCursor cursor;
+      try {
+         String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+         if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cursor");
+         }
+         cursor = new KeysetCursor(parts[0], parts[1].isEmpty() ? null : parts[1], Long.valueOf(parts[2]));
+      } catch (IllegalArgumentException e) {
+         throw new InvalidOperationException("Invalid cursor");
+      }
+      if (sort != null && !sort.equals(cursor.sort)) {
+         throw new InvalidOperationException("Cursor was issued for sort '" + cursor.sort + "', not '" + sort + "'");
+      }
+      return cursor;
+   }
+
+   /**
+    * Validate a requested page size and cap it at {@link #MAX_PAGE_SIZE}
+    */
+   public static int pageSize(int size) {
+      if (size < 1) {
+         throw new InvalidOperationException("Page size must be at least 1");
+      }
+      return Math.min(size, MAX_PAGE_SIZE);
+   }
+
+   /**
+    * Page request for the next page of a size returned by {@link #pageSize};
+    * one extra row is fetched to tell whether more rows follow
+    */
+   public static Pageable limit(int size) {
+      return PageRequest.of(0, size + 1);
+   }
+
+   public BigDecimal decimalValue() {
+      try {
+         return new BigDecimal(value);
+      } catch (RuntimeException e) {
+         throw new InvalidOperationException("Invalid cursor");
+      }
+   }
+
+   public LocalDateTime dateTimeValue() {
+      try {
+         return LocalDateTime.parse(value);
+      } catch (RuntimeException e) {
+         throw new InvalidOperationException("Invalid cursor");
+      }
+   }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.util;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader and every caller
+ * that arrives while it is running waits for and shares its result, or its exception.
+ * Nothing is cached once the load has completed.
+ */
+public class SingleFlight<K, V> {
+
+   private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+   private final LongAdder executed = new LongAdder();
+   private final LongAdder collapsed = new LongAdder();
+
+   /**
+    * Run the loader for the key, or join the load of the key that is already in flight
+    */
+   public V load(K key, Supplier<V> loader) {
+      CompletableFuture<V> call = new CompletableFuture<>();
+      CompletableFuture<V> running = calls.putIfAbsent(key, call);
+      if (running != null) {
+         collapsed.increment();
+         return await(running);
+      }
+
+      executed.increment();
+      try {
+         V value = loader.get();
+         call.complete(value);
+         return value;
+      } catch (RuntimeException | Error e) {
+         call.completeExceptionally(e);
+         throw e;
+      } finally {
+         calls.remove(key, call);
+      }
+   }
+
+   /**
+    * Snapshot of the coalescing counters
+    */
+   public Stats stats() {
+      return new Stats(executed.sum(), collapsed.sum(), calls.size());
+   }
+
+   private static <V> V await(CompletableFuture<V> call) {
+      try {
+         return call.join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         if (e.getCause() instanceof Error cause) {
+            throw cause;
+         }
+         throw e;
+      }
+   }
+
+   /**
+    * Coalescing counters: loads that ran, callers that shared another caller's load,
+    * and loads currently in flight
+    */
+   @Getter
+   public static class Stats {
+      private final long executed;
+      private final long collapsed;
+      private final int inFlight;
+
+      Stats(long executed, long collapsed, int inFlight) {
+         this.executed = executed;
+         this.collapsed = collapsed;
+         this.inFlight = inFlight;
+      }
+
+      public double getCollapseRatio() {
+         long total = executed + collapsed;
+         return total == 0 ? 0.0 : (double) collapsed / total;
+      }
+   }
+}
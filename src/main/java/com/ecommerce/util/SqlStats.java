@@ -0,0 +1,96 @@
+package com.ecommerce.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL work of the current request: statements executed, rows read or written, and time spent in JDBC.
+ * Collected on the request thread by the counting JDBC wrappers while a request is being served, and on the
+ * async thread that writes a streamed response; statements run by scheduled jobs are not attributed to any request.
+ */
+public final class SqlStats {
+
+   private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+   private int statements;
+   private long rows;
+   private long jdbcNanos;
+   private final Map<String, Integer> executions = new HashMap<>();
+   private String mostRepeatedSql;
+   private int mostRepeatedCount;
+
+   private SqlStats() {
+   }
+
+   /**
+    * Start collecting for the current thread
+    */
+   public static SqlStats start() {
+      SqlStats stats = new SqlStats();
+      CURRENT.set(stats);
+      return stats;
+   }
+
+   /**
+    * Continue collecting into the statistics of a request on the current thread, e.g. while its response is streamed
+    */
+   public static void resume(SqlStats stats) {
+      CURRENT.set(stats);
+   }
+
+   /**
+    * Stop collecting for the current thread
+    */
+   public static void stop() {
+      CURRENT.remove();
+   }
+
+   /**
+    * Statistics being collected on the current thread, or null outside a request
+    */
+   public static SqlStats current() {
+      return CURRENT.get();
+   }
+
+   void executed(String sql, long nanos) {
+      statements++;
+      jdbcNanos += nanos;
+      if (sql == null) {
+         return;
+      }
+      int count = executions.merge(sql, 1, Integer::sum);
+      if (count > mostRepeatedCount) {
+         mostRepeatedCount = count;
+         mostRepeatedSql = sql;
+      }
+   }
+
+   void rows(long count) {
+      if (count > 0) {
+         rows += count;
+      }
+   }
+
+   public int getStatements() {
+      return statements;
+   }
+
+   public long getRows() {
+      return rows;
+   }
+
+   public long getJdbcNanos() {
+      return jdbcNanos;
+   }
+
+   /**
+    * SQL executed most often in this request; a high count usually means an N+1 query
+    */
+   public String getMostRepeatedSql() {
+      return mostRepeatedSql;
+   }
+
+   public int getMostRepeatedCount() {
+      return mostRepeatedCount;
+   }
+}
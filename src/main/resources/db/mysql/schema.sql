@@ -0,0 +1,173 @@
+-- MySQL schema for the prod profile, which only validates it (spring.jpa.hibernate.ddl-auto=validate).
+-- Generated from the entity mappings with the MySQL dialect; regenerate after changing an entity.
+-- Sequences are emulated with *_seq tables, which Hibernate hands out in blocks of 50 ids.
+
+create table cart_item_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into cart_item_seq values ( 1 );
+
+create table cart_items (
+    quantity integer not null,
+    subtotal decimal(10,2),
+    created_at datetime(6) not null,
+    id bigint not null,
+    product_id bigint not null,
+    updated_at datetime(6) not null,
+    session_id varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table idempotency_record_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into idempotency_record_seq values ( 1 );
+
+create table idempotency_records (
+    created_at datetime(6) not null,
+    id bigint not null,
+    scope varchar(50) not null,
+    fingerprint varchar(64) not null,
+    idempotency_key varchar(255) not null,
+    response mediumtext not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table order_item_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into order_item_seq values ( 1 );
+
+create table order_items (
+    price_at_purchase decimal(10,2) not null,
+    quantity integer not null,
+    subtotal decimal(10,2) not null,
+    id bigint not null,
+    order_id bigint not null,
+    product_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table order_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into order_seq values ( 1 );
+
+create table orders (
+    total_amount decimal(10,2) not null,
+    created_at datetime(6) not null,
+    id bigint not null,
+    order_date datetime(6) not null,
+    updated_at datetime(6) not null,
+    shipping_address varchar(500) not null,
+    customer_email varchar(255) not null,
+    customer_name varchar(255) not null,
+    order_number varchar(255) not null,
+    payment_status enum ('COMPLETED','FAILED','PENDING','REFUNDED') not null,
+    status enum ('CANCELLED','CONFIRMED','DELIVERED','PENDING','SHIPPED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table outbox_event_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into outbox_event_seq values ( 1 );
+
+create table outbox_events (
+    attempts integer not null,
+    aggregate_id bigint not null,
+    created_at datetime(6) not null,
+    id bigint not null,
+    next_attempt_at datetime(6) not null,
+    claim_token varchar(36),
+    last_error varchar(1000),
+    payload mediumtext not null,
+    event_type enum ('CART_CLEANUP','ORDER_ANALYTICS','ORDER_CONFIRMATION') not null,
+    status enum ('FAILED','PENDING') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table product_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into product_seq values ( 1 );
+
+create table products (
+    active bit not null,
+    price decimal(10,2) not null,
+    stock_quantity integer not null,
+    created_at datetime(6) not null,
+    id bigint not null,
+    updated_at datetime(6) not null,
+    version bigint,
+    description varchar(1000),
+    category varchar(255) not null,
+    image_url varchar(255),
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table stock_ledger_entries (
+    quantity integer not null,
+    created_at datetime(6) not null,
+    id bigint not null,
+    product_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table stock_ledger_entry_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into stock_ledger_entry_seq values ( 1 );
+
+create index idx_cart_items_session_product
+   on cart_items (session_id, product_id);
+
+create index idx_cart_items_session_updated
+   on cart_items (session_id, updated_at);
+
+create index idx_idempotency_records_created_at
+   on idempotency_records (created_at);
+
+alter table idempotency_records
+   add constraint uk_idempotency_records_key unique (scope, idempotency_key);
+
+create index idx_orders_created_at
+   on orders (created_at, id);
+
+alter table orders
+   add constraint uk_orders_order_number unique (order_number);
+
+create index idx_outbox_events_due
+   on outbox_events (status, next_attempt_at);
+
+create index idx_outbox_events_claim
+   on outbox_events (claim_token);
+
+create index idx_products_price
+   on products (price, id);
+
+create index idx_stock_ledger_product
+   on stock_ledger_entries (product_id);
+
+alter table cart_items
+   add constraint fk_cart_items_product
+   foreign key (product_id)
+   references products (id);
+
+alter table order_items
+   add constraint fk_order_items_order
+   foreign key (order_id)
+   references orders (id);
+
+alter table order_items
+   add constraint fk_order_items_product
+   foreign key (product_id)
+   references products (id);
@@ -0,0 +1,99 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.util.SqlStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class SqlStatsFilterTest {
+
+   @Autowired
+   private ProductRepository productRepository;
+
+   @Autowired
+   private ProductService productService;
+
+   @Autowired
+   private PlatformTransactionManager transactionManager;
+
+   @Autowired
+   private MeterRegistry meterRegistry;
+
+   @Autowired
+   private TestRestTemplate restTemplate;
+
+   @AfterEach
+   void tearDown() {
+      SqlStats.stop();
+   }
+
+   @Test
+   void jdbcTemplateStockBatchIsCountedOnce() {
+      Product product = productRepository.save(Product.builder()
+              .name("SQL Stats Product")
+              .price(new BigDecimal("10.00"))
+              .stockQuantity(10)
+              .category("Test")
+              .build());
+
+      // Outside a transaction the template opens its own connection
+      SqlStats stats = SqlStats.start();
+      productRepository.decrementStockBatch(Map.of(product.getId(), 1), LocalDateTime.now());
+      assertThat(stats.getStatements()).isEqualTo(1);
+      assertThat(stats.getRows()).isEqualTo(1);
+
+      // Inside one it shares Hibernate's connection, which is counted already, and still rolls back with it
+      stats = SqlStats.start();
+      new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+         productService.reserveStock(Map.of(product.getId(), 2));
+         status.setRollbackOnly();
+      });
+      assertThat(stats.getMostRepeatedSql()).startsWith("UPDATE products");
+      assertThat(stats.getMostRepeatedCount()).isEqualTo(1);
+      assertThat(productRepository.findById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(9);
+   }
+
+   @Test
+   void streamedExportIsRecordedWhenTheStreamCompletes() throws Exception {
+      ResponseEntity<String> response = restTemplate.getForEntity("/api/products/export", String.class);
+      assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+      assertThat(response.getBody()).isNotBlank();
+
+      DistributionSummary statements = awaitSummary("ecommerce.http.sql.statements", "/api/products/export");
+      assertThat(statements.count()).isEqualTo(1);
+      assertThat(statements.totalAmount()).isPositive();
+      assertThat(awaitSummary("ecommerce.http.sql.rows", "/api/products/export").totalAmount()).isPositive();
+   }
+
+   private DistributionSummary awaitSummary(String name, String uri) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      DistributionSummary summary = meterRegistry.find(name).tag("uri", uri).summary();
+      while (summary == null && System.nanoTime() < deadline) {
+         Thread.sleep(5);
+         summary = meterRegistry.find(name).tag("uri", uri).summary();
+      }
+      assertThat(summary).isNotNull();
+      return summary;
+   }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThreadingConfigTest {
+
+   @Test
+   void virtualThreadsOnAPre21JvmFailStartup() {
+      MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+
+      assertThatThrownBy(() -> ThreadingConfig.requireVirtualThreadSupport(environment, 17))
+              .isInstanceOf(IllegalStateException.class)
+              .hasMessageContaining("requires Java 21")
+              .hasMessageContaining("Java 17");
+      assertThatCode(() -> ThreadingConfig.requireVirtualThreadSupport(environment, 21)).doesNotThrowAnyException();
+   }
+
+   @Test
+   void platformThreadsStartOnAnyJvm() {
+      assertThatCode(() -> ThreadingConfig.requireVirtualThreadSupport(new MockEnvironment(), 17))
+              .doesNotThrowAnyException();
+   }
+}
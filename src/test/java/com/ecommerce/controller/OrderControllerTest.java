@@ -0,0 +1,190 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.AddToCartRequest;
+import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.OutboxDispatcher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderControllerTest {
+
+   @Autowired
+   private MockMvc mockMvc;
+
+   @Autowired
+   private OrderRepository orderRepository;
+
+   @Autowired
+   private ProductRepository productRepository;
+
+   @Autowired
+   private ObjectMapper objectMapper;
+
+   @Autowired
+   private OutboxDispatcher outboxDispatcher;
+
+   @Autowired
+   private CartService cartService;
+
+   private final List<Product> products = new ArrayList<>();
+   private String customerEmail;
+
+   @BeforeEach
+   void setUp() {
+      products.clear();
+      for (int i = 0; i < 3; i++) {
+         products.add(productRepository.save(Product.builder()
+                 .name("Order Test Product " + i)
+                 .price(new BigDecimal("10.00").add(BigDecimal.valueOf(i)))
+                 .stockQuantity(1000)
+                 .category("Test")
+                 .build()));
+      }
+      customerEmail = UUID.randomUUID() + "@example.com";
+   }
+
+   @Test
+   void orderPagesRunTheSameNumberOfStatementsWhateverTheOrderCount() throws Exception {
+      createOrders(5);
+      int smallPage = statementsFor("/api/orders?page=0&size=5");
+
+      createOrders(40);
+      int fullPage = statementsFor("/api/orders?page=0&size=20");
+      int laterPage = statementsFor("/api/orders?page=1&size=20");
+
+      // Orders, their items with products, and the total count
+      assertThat(smallPage).isLessThanOrEqualTo(3);
+      assertThat(fullPage).isEqualTo(smallPage);
+      assertThat(laterPage).isEqualTo(smallPage);
+   }
+
+   @Test
+   void customerOrdersRunTheSameNumberOfStatementsWhateverTheOrderCount() throws Exception {
+      createOrders(1);
+      int oneOrder = statementsFor("/api/orders/customer/" + customerEmail);
+
+      createOrders(20);
+      int manyOrders = statementsFor("/api/orders/customer/" + customerEmail);
+
+      assertThat(oneOrder).isLessThanOrEqualTo(2);
+      assertThat(manyOrders).isEqualTo(oneOrder);
+   }
+
+   @Test
+   void retryWithoutKeyForTheSameCartReturnsTheFirstOrder() throws Exception {
+      String sessionId = UUID.randomUUID().toString();
+      addToCart(sessionId, products.get(0), 1);
+
+      JsonNode first = placeOrder(sessionId);
+      JsonNode retry = placeOrder(sessionId);
+
+      assertThat(retry.get("id").asLong()).isEqualTo(first.get("id").asLong());
+   }
+
+   @Test
+   void retryWithoutKeyAfterTheCartWasClearedReturnsTheFirstOrder() throws Exception {
+      String sessionId = UUID.randomUUID().toString();
+      addToCart(sessionId, products.get(0), 2);
+      JsonNode first = placeOrder(sessionId);
+
+      outboxDispatcher.dispatch();
+      assertThat(cartService.getCartItems(sessionId)).isEmpty();
+      JsonNode retry = placeOrder(sessionId);
+
+      assertThat(retry).isEqualTo(first);
+   }
+
+   @Test
+   void sameCustomerWithChangedCartGetsANewOrder() throws Exception {
+      String sessionId = UUID.randomUUID().toString();
+      addToCart(sessionId, products.get(0), 1);
+      JsonNode first = placeOrder(sessionId);
+
+      addToCart(sessionId, products.get(1), 1);
+      JsonNode second = placeOrder(sessionId);
+
+      assertThat(second.get("id").asLong()).isNotEqualTo(first.get("id").asLong());
+      List<String> orderedProducts = new ArrayList<>();
+      second.get("orderItems").forEach(item -> orderedProducts.add(item.get("product").get("name").asText()));
+      assertThat(orderedProducts).contains(products.get(1).getName());
+   }
+
+   private void addToCart(String sessionId, Product product, int quantity) throws Exception {
+      AddToCartRequest request = new AddToCartRequest();
+      request.setProductId(product.getId());
+      request.setQuantity(quantity);
+      mockMvc.perform(post("/api/cart/" + sessionId + "/items")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content(objectMapper.writeValueAsString(request)))
+              .andExpect(status().isOk());
+   }
+
+   private JsonNode placeOrder(String sessionId) throws Exception {
+      CreateOrderRequest request = new CreateOrderRequest();
+      request.setSessionId(sessionId);
+      request.setCustomerName("Repeat Customer");
+      request.setCustomerEmail(customerEmail);
+      request.setPhoneNumber("5551234567");
+      request.setShippingAddress("1 Test Street, Springfield");
+      String body = mockMvc.perform(post("/api/orders")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content(objectMapper.writeValueAsString(request)))
+              .andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsString();
+      return objectMapper.readTree(body);
+   }
+
+   private int statementsFor(String uri) throws Exception {
+      String statements = mockMvc.perform(get(uri))
+              .andExpect(status().isOk())
+              .andReturn().getResponse().getHeader("X-SQL-Statements");
+      assertThat(statements).isNotNull();
+      return Integer.parseInt(statements);
+   }
+
+   private void createOrders(int count) {
+      for (int i = 0; i < count; i++) {
+         Order order = Order.builder()
+                 .customerName("Query Count")
+                 .customerEmail(customerEmail)
+                 .shippingAddress("1 Test Street")
+                 .build();
+         for (Product product : products) {
+            order.addOrderItem(OrderItem.builder()
+                    .product(product)
+                    .quantity(2)
+                    .priceAtPurchase(product.getPrice())
+                    .subtotal(product.getPrice().multiply(BigDecimal.valueOf(2)))
+                    .build());
+         }
+         orderRepository.save(order);
+      }
+   }
+}
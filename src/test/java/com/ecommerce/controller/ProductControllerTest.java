@@ -0,0 +1,112 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.ProductRequest;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductControllerTest {
+
+   @Autowired
+   private MockMvc mockMvc;
+
+   @Autowired
+   private ProductRepository productRepository;
+
+   @Autowired
+   private ProductService productService;
+
+   @Autowired
+   private ObjectMapper objectMapper;
+
+   @Test
+   void eTagFollowsTheProductSentWithIt() throws Exception {
+      Product product = productRepository.save(Product.builder()
+              .name("ETag Test Product")
+              .price(new BigDecimal("10.00"))
+              .stockQuantity(5)
+              .category("Test")
+              .build());
+      String uri = "/api/products/" + product.getId();
+
+      MockHttpServletResponse first = mockMvc.perform(get(uri))
+              .andExpect(status().isOk())
+              .andReturn().getResponse();
+      String eTag = first.getHeader(HttpHeaders.ETAG);
+      assertThat(eTag).isEqualTo("\"" + product.getId() + "-" + product.getVersion() + "\"");
+
+      mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+              .andExpect(status().isNotModified());
+
+      ProductRequest update = new ProductRequest();
+      update.setName("ETag Test Product");
+      update.setPrice(new BigDecimal("12.50"));
+      update.setStockQuantity(5);
+      update.setCategory("Test");
+      mockMvc.perform(put(uri)
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content(objectMapper.writeValueAsString(update)))
+              .andExpect(status().isOk());
+
+      MockHttpServletResponse changed = mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+              .andExpect(status().isOk())
+              .andReturn().getResponse();
+      Product updated = productRepository.findById(product.getId()).orElseThrow();
+      assertThat(changed.getHeader(HttpHeaders.ETAG))
+              .isEqualTo("\"" + updated.getId() + "-" + updated.getVersion() + "\"");
+      assertThat(objectMapper.readTree(changed.getContentAsString()).get("price").decimalValue())
+              .isEqualByComparingTo("12.50");
+   }
+
+   @Test
+   void searchPageSizeIsCapped() throws Exception {
+      for (int i = 0; i < 120; i++) {
+         ProductRequest request = new ProductRequest();
+         request.setName("Capped Search Product " + i);
+         request.setPrice(new BigDecimal("1.00"));
+         request.setStockQuantity(1);
+         request.setCategory("Test");
+         productService.createProduct(request);
+      }
+
+      String body = mockMvc.perform(get("/api/products/search?keyword=capped&size=1000000"))
+              .andExpect(status().isOk())
+              .andReturn().getResponse().getContentAsString();
+      assertThat(objectMapper.readTree(body).size()).isEqualTo(100);
+
+      mockMvc.perform(get("/api/products/search?keyword=capped&size=0"))
+              .andExpect(status().isBadRequest());
+   }
+
+   @Test
+   void exportGetsTheExportTimeout() throws Exception {
+      MvcResult result = mockMvc.perform(get("/api/products/export?format=csv"))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+      // export.timeout, not the application-wide default
+      assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(3_600_000L);
+      result.getAsyncResult();
+   }
+}
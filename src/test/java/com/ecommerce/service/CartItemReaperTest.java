@@ -0,0 +1,74 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "cart.store=jpa")
+@ActiveProfiles("test")
+class CartItemReaperTest {
+
+   @Autowired
+   private CartItemReaper reaper;
+
+   @Autowired
+   private CartItemRepository cartItemRepository;
+
+   @Autowired
+   private ProductRepository productRepository;
+
+   @Autowired
+   private JdbcTemplate jdbcTemplate;
+
+   @Test
+   void abandonedCartIsRemovedAndActiveCartIsKeptWhole() {
+      Product product = productRepository.save(Product.builder()
+              .name("Reaper Test Product")
+              .price(new BigDecimal("10.00"))
+              .stockQuantity(100)
+              .category("Test")
+              .build());
+      String abandoned = UUID.randomUUID().toString();
+      String active = UUID.randomUUID().toString();
+      CartItem abandonedLine = addLine(abandoned, product);
+      CartItem staleActiveLine = addLine(active, product);
+      CartItem freshActiveLine = addLine(active, product);
+      // Older than cart.store.ttl (2h by default)
+      touch(abandonedLine, LocalDateTime.now().minusHours(3));
+      touch(staleActiveLine, LocalDateTime.now().minusHours(3));
+      touch(freshActiveLine, LocalDateTime.now());
+
+      reaper.reap();
+
+      assertThat(cartItemRepository.findBySessionId(abandoned)).isEmpty();
+      assertThat(cartItemRepository.findBySessionId(active))
+              .extracting(CartItem::getId)
+              .containsExactlyInAnyOrder(staleActiveLine.getId(), freshActiveLine.getId());
+   }
+
+   private CartItem addLine(String sessionId, Product product) {
+      return cartItemRepository.save(CartItem.builder()
+              .sessionId(sessionId)
+              .product(product)
+              .quantity(1)
+              .subtotal(product.getPrice())
+              .build());
+   }
+
+   private void touch(CartItem line, LocalDateTime updatedAt) {
+      jdbcTemplate.update("UPDATE cart_items SET updated_at = ? WHERE id = ?", Timestamp.valueOf(updatedAt), line.getId());
+   }
+}
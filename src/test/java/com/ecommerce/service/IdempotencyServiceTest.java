@@ -0,0 +1,161 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.InvalidOperationException;
+import com.ecommerce.model.IdempotencyRecord;
+import com.ecommerce.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+   private static final String SCOPE = "payment";
+
+   private IdempotencyRecordRepository recordRepository;
+   private IdempotencyService service;
+
+   @BeforeEach
+   void setUp() {
+      recordRepository = mock(IdempotencyRecordRepository.class);
+      when(recordRepository.findByScopeAndIdempotencyKey(any(), any())).thenReturn(Optional.empty());
+      when(recordRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+      service = new IdempotencyService(recordRepository, new ObjectMapper(), mock(PlatformTransactionManager.class),
+              Duration.ofHours(24), Duration.ofSeconds(60), 100);
+   }
+
+   @Test
+   void concurrentCallersWithTheSameKeyRunTheActionOnce() throws Exception {
+      int callers = 8;
+      AtomicInteger runs = new AtomicInteger();
+      CountDownLatch release = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(callers);
+      try {
+         List<Future<String>> responses = new ArrayList<>();
+         for (int i = 0; i < callers; i++) {
+            responses.add(executor.submit(() -> service.execute(SCOPE, "key-1", "order 1", String.class, () -> {
+               runs.incrementAndGet();
+               await(release);
+               return "paid";
+            })));
+         }
+         // Hold the first call until every other caller has joined it
+         long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+         while (service.getCoalesced() < callers - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+         }
+         release.countDown();
+
+         for (Future<String> response : responses) {
+            assertThat(response.get(10, TimeUnit.SECONDS)).isEqualTo("paid");
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+      assertThat(runs).hasValue(1);
+      assertThat(service.getExecuted()).isEqualTo(1);
+      assertThat(service.getCoalesced()).isEqualTo(callers - 1);
+      verify(recordRepository, times(1)).saveAndFlush(any());
+   }
+
+   @Test
+   void retryAfterCompletionReplaysTheFirstResponse() {
+      AtomicInteger runs = new AtomicInteger();
+      service.execute(SCOPE, "key-2", "order 2", String.class, () -> "paid " + runs.incrementAndGet());
+
+      String replay = service.execute(SCOPE, "key-2", "order 2", String.class, () -> "paid " + runs.incrementAndGet());
+
+      assertThat(replay).isEqualTo("paid 1");
+      assertThat(runs).hasValue(1);
+      assertThat(service.getReplayed()).isEqualTo(1);
+   }
+
+   @Test
+   void failureIsNotCachedAndTheRetryRunsAgain() {
+      assertThatThrownBy(() -> service.execute(SCOPE, "key-3", "order 3", String.class, () -> {
+         throw new IllegalStateException("gateway down");
+      })).isInstanceOf(IllegalStateException.class);
+      verify(recordRepository, never()).saveAndFlush(any());
+
+      String response = service.execute(SCOPE, "key-3", "order 3", String.class, () -> "paid");
+
+      assertThat(response).isEqualTo("paid");
+      assertThat(service.getExecuted()).isEqualTo(1);
+      assertThat(service.getReplayed()).isZero();
+   }
+
+   @Test
+   void losingTheUniqueKeyRaceReturnsTheStoredResponse() {
+      IdempotencyRecord winner = IdempotencyRecord.builder()
+              .scope(SCOPE)
+              .idempotencyKey("key-4")
+              .fingerprint(sha256("order 4"))
+              .response("\"paid by the other instance\"")
+              .createdAt(LocalDateTime.now())
+              .build();
+      when(recordRepository.findByScopeAndIdempotencyKey(SCOPE, "key-4"))
+              .thenReturn(Optional.empty())
+              .thenReturn(Optional.of(winner));
+      when(recordRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+      String response = service.execute(SCOPE, "key-4", "order 4", String.class, () -> "paid here");
+
+      assertThat(response).isEqualTo("paid by the other instance");
+      assertThat(service.getExecuted()).isZero();
+      assertThat(service.getReplayed()).isEqualTo(1);
+
+      // The winner's response is cached, so a further retry does not reach the table
+      assertThat(service.execute(SCOPE, "key-4", "order 4", String.class, () -> "paid again"))
+              .isEqualTo("paid by the other instance");
+      verify(recordRepository, times(2)).findByScopeAndIdempotencyKey(SCOPE, "key-4");
+   }
+
+   @Test
+   void keyReusedForADifferentRequestIsRejected() {
+      service.execute(SCOPE, "key-5", "order 5", String.class, () -> "paid");
+
+      assertThatThrownBy(() -> service.execute(SCOPE, "key-5", "order 6", String.class, () -> "paid"))
+              .isInstanceOf(InvalidOperationException.class);
+   }
+
+   private static void await(CountDownLatch latch) {
+      try {
+         latch.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private static String sha256(String text) {
+      try {
+         return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+      } catch (Exception e) {
+         throw new IllegalStateException(e);
+      }
+   }
+}
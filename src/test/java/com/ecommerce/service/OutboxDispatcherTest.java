@@ -0,0 +1,109 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderPlacedEvent;
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+   private static final int EVENTS = 300;
+   private static final int DISPATCHERS = 4;
+
+   @Autowired
+   private OutboxDispatcher dispatcher;
+
+   @Autowired
+   private OutboxService outboxService;
+
+   @Autowired
+   private OutboxEventRepository outboxEventRepository;
+
+   @Autowired
+   private OrderAnalytics orderAnalytics;
+
+   @Autowired
+   private PlatformTransactionManager transactionManager;
+
+   @Test
+   void concurrentDispatchersHandleEveryEventOnce() throws Exception {
+      long ordersBefore = orderAnalytics.getOrdersPlaced();
+      long unitsBefore = orderAnalytics.getUnitsSold();
+      TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+      transactionTemplate.executeWithoutResult(status -> {
+         for (long orderId = 1; orderId <= EVENTS; orderId++) {
+            outboxService.publish(orderId, OrderPlacedEvent.builder()
+                    .orderId(orderId)
+                    .orderNumber("ORD-" + orderId)
+                    .sessionId("outbox-test")
+                    .cartItemIds(List.of())
+                    .customerName("Outbox Test")
+                    .customerEmail("outbox@example.com")
+                    .totalAmount(new BigDecimal("9.99"))
+                    .units(2)
+                    .build(), OutboxEvent.EventType.ORDER_ANALYTICS);
+         }
+      });
+
+      ExecutorService executor = Executors.newFixedThreadPool(DISPATCHERS);
+      try {
+         List<Future<?>> runs = new ArrayList<>();
+         for (int i = 0; i < DISPATCHERS; i++) {
+            runs.add(executor.submit(() -> {
+               while (outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING) > 0) {
+                  dispatcher.dispatch();
+               }
+            }));
+         }
+         for (Future<?> run : runs) {
+            run.get(60, TimeUnit.SECONDS);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertThat(outboxEventRepository.count()).isZero();
+      assertThat(orderAnalytics.getOrdersPlaced() - ordersBefore).isEqualTo(EVENTS);
+      assertThat(orderAnalytics.getUnitsSold() - unitsBefore).isEqualTo(2L * EVENTS);
+   }
+
+   @Test
+   void eventOfALargeCartIsStoredAndDispatched() {
+      long ordersBefore = orderAnalytics.getOrdersPlaced();
+      List<Long> cartItemIds = LongStream.rangeClosed(1_000_000, 1_002_000).boxed().toList();
+      new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+              outboxService.publish(1L, OrderPlacedEvent.builder()
+                      .orderId(1L)
+                      .orderNumber("ORD-LARGE")
+                      .sessionId("outbox-test")
+                      .cartItemIds(cartItemIds)
+                      .customerName("Outbox Test")
+                      .customerEmail("outbox@example.com")
+                      .totalAmount(new BigDecimal("9.99"))
+                      .units(cartItemIds.size())
+                      .build(), OutboxEvent.EventType.ORDER_ANALYTICS));
+
+      dispatcher.dispatch();
+
+      assertThat(outboxEventRepository.count()).isZero();
+      assertThat(orderAnalytics.getOrdersPlaced() - ordersBefore).isEqualTo(1);
+   }
+}
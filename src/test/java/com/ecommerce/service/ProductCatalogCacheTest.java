@@ -0,0 +1,116 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogCacheTest {
+
+   @Test
+   void cachedSnapshotIsCopiedOnRead() {
+      ProductCatalogCache cache = new ProductCatalogCache(100);
+      cache.put(product(1L, 1L, "Laptop"), cache.ticket(1L));
+
+      cache.get(1L).orElseThrow().setName("Changed by caller");
+
+      assertThat(cache.get(1L)).get().extracting(Product::getName).isEqualTo("Laptop");
+   }
+
+   @Test
+   void olderVersionNeverReplacesNewerSnapshot() {
+      ProductCatalogCache cache = new ProductCatalogCache(100);
+      cache.put(product(1L, 3L, "Laptop v3"), cache.ticket(1L));
+
+      cache.put(product(1L, 2L, "Laptop v2"), cache.ticket(1L));
+
+      assertThat(cache.get(1L)).get().extracting(Product::getVersion).isEqualTo(3L);
+   }
+
+   @Test
+   void loadStartedBeforeInvalidationIsNotCached() {
+      ProductCatalogCache cache = new ProductCatalogCache(100);
+      cache.put(product(1L, 1L, "Laptop"), cache.ticket(1L));
+      long ticket = cache.ticket(1L);
+
+      // A bulk stock update commits while the load is in flight; it does not know the new version
+      cache.invalidate(1L, null);
+      cache.put(product(1L, 1L, "Laptop"), ticket);
+
+      assertThat(cache.get(1L)).isEmpty();
+      cache.put(product(1L, 2L, "Laptop"), cache.ticket(1L));
+      assertThat(cache.get(1L)).get().extracting(Product::getVersion).isEqualTo(2L);
+   }
+
+   @Test
+   void invalidationWithCommittedVersionRejectsOlderLoads() {
+      ProductCatalogCache cache = new ProductCatalogCache(100);
+      cache.put(product(1L, 1L, "Laptop"), cache.ticket(1L));
+
+      cache.invalidate(1L, 2L);
+      cache.put(product(1L, 1L, "Laptop"), cache.ticket(1L));
+
+      assertThat(cache.get(1L)).isEmpty();
+      cache.put(product(1L, 2L, "Laptop"), cache.ticket(1L));
+      assertThat(cache.get(1L)).isPresent();
+   }
+
+   @Test
+   void leastRecentlyUsedEntryIsEvicted() {
+      // 16 segments of two entries; IDs 1, 17 and 33 share a segment
+      ProductCatalogCache cache = new ProductCatalogCache(32);
+      cache.put(product(1L, 1L, "Laptop"), cache.ticket(1L));
+      cache.put(product(17L, 1L, "Mouse"), cache.ticket(17L));
+      cache.get(1L);
+
+      cache.put(product(33L, 1L, "Keyboard"), cache.ticket(33L));
+
+      assertThat(cache.get(1L)).isPresent();
+      assertThat(cache.get(17L)).isEmpty();
+      assertThat(cache.get(33L)).isPresent();
+      assertThat(cache.stats().getEvictions()).isEqualTo(1);
+      assertThat(cache.stats().getSize()).isEqualTo(2);
+   }
+
+   @Test
+   void invalidatingAnotherProductKeepsTheTicket() {
+      ProductCatalogCache cache = new ProductCatalogCache(100);
+      long ticket = cache.ticket(1L);
+
+      cache.invalidate(2L, null);
+
+      assertThat(cache.ticket(1L)).isEqualTo(ticket);
+      cache.put(product(1L, 1L, "Laptop"), ticket);
+      assertThat(cache.get(1L)).isPresent();
+   }
+
+   @Test
+   void evictedTombstoneStillRejectsOlderLoads() {
+      // 16 segments of two entries; IDs 1, 17 and 33 share a segment
+      ProductCatalogCache cache = new ProductCatalogCache(32);
+      long ticket = cache.ticket(1L);
+      cache.invalidate(1L, null);
+
+      cache.put(product(17L, 1L, "Mouse"), cache.ticket(17L));
+      cache.put(product(33L, 1L, "Keyboard"), cache.ticket(33L));
+      cache.put(product(1L, 1L, "Laptop"), ticket);
+
+      assertThat(cache.get(1L)).isEmpty();
+      assertThat(cache.stats().getSize()).isEqualTo(2);
+      cache.put(product(1L, 2L, "Laptop"), cache.ticket(1L));
+      assertThat(cache.get(1L)).isPresent();
+   }
+
+   static Product product(Long id, Long version, String name) {
+      return Product.builder()
+              .id(id)
+              .version(version)
+              .name(name)
+              .price(new BigDecimal("99.99"))
+              .stockQuantity(10)
+              .category("Electronics")
+              .build();
+   }
+}
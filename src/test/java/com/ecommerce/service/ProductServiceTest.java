@@ -0,0 +1,142 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.util.DtoMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ecommerce.service.ProductCatalogCacheTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+   private ProductRepository productRepository;
+   private ProductCatalogCache productCache;
+   private ProductService productService;
+
+   @BeforeEach
+   void setUp() {
+      productRepository = mock(ProductRepository.class);
+      productCache = new ProductCatalogCache(100);
+      productService = new ProductService(productRepository, productCache, mock(ProductSearchIndex.class),
+              mock(CategoryRegistry.class), mock(StockReservationLedger.class), new DtoMapper());
+   }
+
+   @Test
+   void concurrentMissesShareOneLoadButNotAcrossAnInvalidation() throws Exception {
+      CountDownLatch firstLoadStarted = new CountDownLatch(1);
+      CountDownLatch releaseFirstLoad = new CountDownLatch(1);
+      AtomicInteger loads = new AtomicInteger();
+      when(productRepository.findById(1L)).thenAnswer(invocation -> {
+         if (loads.incrementAndGet() == 1) {
+            firstLoadStarted.countDown();
+            releaseFirstLoad.await(10, TimeUnit.SECONDS);
+            return Optional.of(product(1L, 1L, "Laptop"));
+         }
+         return Optional.of(product(1L, 2L, "Laptop (new price)"));
+      });
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<Product> first = executor.submit(() -> productService.getProductEntityById(1L));
+         assertThat(firstLoadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+         Future<Product> joined = executor.submit(() -> productService.getProductEntityById(1L));
+         awaitCollapsed(1);
+
+         // A write commits while the first load is in flight: later readers must not join that load
+         productCache.invalidate(1L, 2L);
+         Product afterWrite = productService.getProductEntityById(1L);
+         assertThat(afterWrite.getVersion()).isEqualTo(2L);
+
+         releaseFirstLoad.countDown();
+         assertThat(first.get(10, TimeUnit.SECONDS).getVersion()).isEqualTo(1L);
+         assertThat(joined.get(10, TimeUnit.SECONDS).getVersion()).isEqualTo(1L);
+      } finally {
+         executor.shutdownNow();
+      }
+
+      verify(productRepository, times(2)).findById(1L);
+      assertThat(productService.getProductLoadStats().getExecuted()).isEqualTo(2);
+      assertThat(productService.getProductLoadStats().getCollapsed()).isEqualTo(1);
+      // The stale load finished last but did not overwrite the newer snapshot
+      assertThat(productCache.get(1L)).get().extracting(Product::getVersion).isEqualTo(2L);
+   }
+
+   @Test
+   void invalidatingAnotherProductDoesNotSplitTheLoad() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      when(productRepository.findById(1L)).thenAnswer(invocation -> {
+         release.await(10, TimeUnit.SECONDS);
+         return Optional.of(product(1L, 1L, "Laptop"));
+      });
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<Product> first = executor.submit(() -> productService.getProductEntityById(1L));
+         awaitExecuted(1);
+         // A checkout of another product commits while the load is in flight
+         productCache.invalidate(2L, null);
+         Future<Product> second = executor.submit(() -> productService.getProductEntityById(1L));
+         awaitCollapsed(1);
+         release.countDown();
+
+         assertThat(first.get(10, TimeUnit.SECONDS).getName()).isEqualTo("Laptop");
+         assertThat(second.get(10, TimeUnit.SECONDS).getName()).isEqualTo("Laptop");
+      } finally {
+         executor.shutdownNow();
+      }
+      verify(productRepository, times(1)).findById(1L);
+      assertThat(productCache.get(1L)).isPresent();
+   }
+
+   @Test
+   void sharedLoadHandsEveryCallerItsOwnCopy() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      when(productRepository.findById(1L)).thenAnswer(invocation -> {
+         release.await(10, TimeUnit.SECONDS);
+         return Optional.of(product(1L, 1L, "Laptop"));
+      });
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<Product> first = executor.submit(() -> productService.getProductEntityById(1L));
+         Future<Product> second = executor.submit(() -> productService.getProductEntityById(1L));
+         awaitCollapsed(1);
+         release.countDown();
+
+         Product firstProduct = first.get(10, TimeUnit.SECONDS);
+         firstProduct.setName("Changed by caller");
+         assertThat(second.get(10, TimeUnit.SECONDS).getName()).isEqualTo("Laptop");
+      } finally {
+         executor.shutdownNow();
+      }
+      verify(productRepository, times(1)).findById(1L);
+   }
+
+   private void awaitExecuted(long executed) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (productService.getProductLoadStats().getExecuted() < executed && System.nanoTime() < deadline) {
+         Thread.sleep(5);
+      }
+   }
+
+   private void awaitCollapsed(long collapsed) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (productService.getProductLoadStats().getCollapsed() < collapsed && System.nanoTime() < deadline) {
+         Thread.sleep(5);
+      }
+   }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationLedgerTest {
+
+   private static final int INITIAL_STOCK = 200;
+   private static final int BUYERS = 8;
+   private static final int ATTEMPTS_PER_BUYER = 150;
+
+   @Autowired
+   private StockReservationLedger ledger;
+
+   @Autowired
+   private ProductRepository productRepository;
+
+   @Autowired
+   private PlatformTransactionManager transactionManager;
+
+   private TransactionTemplate transactionTemplate;
+   private Long productId;
+
+   @BeforeEach
+   void setUp() {
+      transactionTemplate = new TransactionTemplate(transactionManager);
+      productId = productRepository.save(Product.builder()
+              .name("Flash Sale Console")
+              .price(new BigDecimal("299.99"))
+              .stockQuantity(INITIAL_STOCK)
+              .category("Electronics")
+              .build()).getId();
+      ledger.enable(productId);
+   }
+
+   @AfterEach
+   void tearDown() {
+      ledger.disable(productId);
+   }
+
+   @Test
+   void reservationsRacingWithReconcileNeverOversell() throws Exception {
+      AtomicInteger committedUnits = new AtomicInteger();
+      AtomicBoolean buying = new AtomicBoolean(true);
+      ExecutorService executor = Executors.newFixedThreadPool(BUYERS + 1);
+      try {
+         Future<Integer> reconciles = executor.submit(() -> {
+            int runs = 0;
+            while (buying.get()) {
+               ledger.reconcile(productId);
+               ledger.flushAll();
+               runs++;
+            }
+            return runs;
+         });
+
+         List<Future<?>> buyers = new ArrayList<>();
+         for (int i = 0; i < BUYERS; i++) {
+            buyers.add(executor.submit(() -> {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               for (int attempt = 0; attempt < ATTEMPTS_PER_BUYER; attempt++) {
+                  int quantity = random.nextInt(1, 4);
+                  boolean rollback = random.nextInt(5) == 0;
+                  Boolean committed = transactionTemplate.execute(status -> {
+                     if (!ledger.reserve(productId, quantity)) {
+                        return false;
+                     }
+                     if (rollback) {
+                        status.setRollbackOnly();
+                        return false;
+                     }
+                     return true;
+                  });
+                  if (Boolean.TRUE.equals(committed)) {
+                     committedUnits.addAndGet(quantity);
+                  }
+               }
+            }));
+         }
+         for (Future<?> buyer : buyers) {
+            buyer.get(60, TimeUnit.SECONDS);
+         }
+         buying.set(false);
+         assertThat(reconciles.get(60, TimeUnit.SECONDS)).isPositive();
+      } finally {
+         executor.shutdownNow();
+      }
+
+      ledger.flushAll();
+      int stock = productRepository.findStockQuantityById(productId).orElseThrow();
+      assertThat(committedUnits.get()).isLessThanOrEqualTo(INITIAL_STOCK);
+      assertThat(stock).isEqualTo(INITIAL_STOCK - committedUnits.get()).isNotNegative();
+
+      // The counters hold exactly the remaining stock, neither more nor less
+      ledger.reconcile(productId);
+      int remaining = 0;
+      while (Boolean.TRUE.equals(transactionTemplate.execute(status -> ledger.reserve(productId, 1)))) {
+         remaining++;
+      }
+      assertThat(remaining).isEqualTo(stock);
+   }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+   private final ObjectMapper objectMapper = new ObjectMapper();
+
+   @Test
+   void emptyCsvExportStillHasItsHeader() throws Exception {
+      ByteArrayOutputStream products = new ByteArrayOutputStream();
+      ExportWriter.forProducts(ExportWriter.Format.CSV, objectMapper, products).close();
+      assertThat(products.toString(StandardCharsets.UTF_8))
+              .isEqualTo("id,name,description,price,stockQuantity,category,imageUrl,active\r\n");
+
+      ByteArrayOutputStream orders = new ByteArrayOutputStream();
+      ExportWriter.forOrders(ExportWriter.Format.CSV, objectMapper, orders).close();
+      assertThat(orders.toString(StandardCharsets.UTF_8)).startsWith("orderId,orderNumber,").endsWith("subtotal\r\n");
+   }
+
+   @Test
+   void emptyNdjsonExportIsEmpty() throws Exception {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ExportWriter.forProducts(ExportWriter.Format.NDJSON, objectMapper, out).close();
+      assertThat(out.size()).isZero();
+   }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+   private static final int CALLERS = 8;
+
+   private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+   @Test
+   void concurrentCallersForTheSameKeyShareOneLoad() throws Exception {
+      AtomicInteger loads = new AtomicInteger();
+      CountDownLatch release = new CountDownLatch(1);
+
+      List<String> results = callConcurrently("product-1", () -> {
+         loads.incrementAndGet();
+         await(release);
+         return "loaded";
+      }, release);
+
+      assertThat(results).hasSize(CALLERS).containsOnly("loaded");
+      assertThat(loads).hasValue(1);
+      SingleFlight.Stats stats = singleFlight.stats();
+      assertThat(stats.getExecuted()).isEqualTo(1);
+      assertThat(stats.getCollapsed()).isEqualTo(CALLERS - 1);
+      assertThat(stats.getInFlight()).isZero();
+   }
+
+   @Test
+   void failureReachesEveryWaiterAndIsNotCached() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+      try {
+         List<Future<String>> calls = submitAll(executor, "product-2", () -> {
+            await(release);
+            throw new IllegalStateException("database down");
+         });
+         awaitCollapsed(CALLERS - 1);
+         release.countDown();
+         for (Future<String> call : calls) {
+            assertThatThrownBy(() -> call.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertThat(singleFlight.load("product-2", () -> "loaded")).isEqualTo("loaded");
+      assertThat(singleFlight.stats().getExecuted()).isEqualTo(2);
+   }
+
+   @Test
+   void completedLoadsAreNotReused() {
+      AtomicInteger loads = new AtomicInteger();
+
+      singleFlight.load("product-3", () -> "load " + loads.incrementAndGet());
+      String second = singleFlight.load("product-3", () -> "load " + loads.incrementAndGet());
+
+      assertThat(second).isEqualTo("load 2");
+      assertThat(singleFlight.stats().getCollapsed()).isZero();
+   }
+
+   @Test
+   void differentKeysDoNotWaitForEachOther() {
+      CountDownLatch release = new CountDownLatch(1);
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         Future<String> blocked = executor.submit(() -> singleFlight.load("product-4", () -> {
+            await(release);
+            return "slow";
+         }));
+
+         assertThat(singleFlight.load("product-5", () -> "fast")).isEqualTo("fast");
+         assertThat(blocked).isNotDone();
+         release.countDown();
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   private List<String> callConcurrently(String key, Supplier<String> loader, CountDownLatch release)
+           throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+      try {
+         List<Future<String>> calls = submitAll(executor, key, loader);
+         awaitCollapsed(CALLERS - 1);
+         release.countDown();
+         List<String> results = new ArrayList<>();
+         for (Future<String> call : calls) {
+            results.add(call.get(10, TimeUnit.SECONDS));
+         }
+         return results;
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private List<Future<String>> submitAll(ExecutorService executor, String key, Supplier<String> loader) {
+      List<Future<String>> calls = new ArrayList<>();
+      for (int i = 0; i < CALLERS; i++) {
+         calls.add(executor.submit(() -> singleFlight.load(key, loader)));
+      }
+      return calls;
+   }
+
+   /**
+    * Wait until the given number of callers have joined the load in flight
+    */
+   private void awaitCollapsed(long collapsed) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (singleFlight.stats().getCollapsed() < collapsed && System.nanoTime() < deadline) {
+         Thread.sleep(5);
+      }
+   }
+
+   private static void await(CountDownLatch latch) {
+      try {
+         latch.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+}